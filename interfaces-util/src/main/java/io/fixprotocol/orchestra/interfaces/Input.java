@@ -1,6 +1,5 @@
 package io.fixprotocol.orchestra.interfaces;
 
-import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.Reader;
 import org.w3c.dom.ls.LSInput;
@@ -17,7 +16,7 @@ class Input implements LSInput {
   public Input(String publicId, String systemId, InputStream inputStream, String baseURI) {
     this.publicId = publicId;
     this.systemId = systemId;
-    this.inputStream = new BufferedInputStream(inputStream);
+    this.inputStream = inputStream;
     this.baseUri = baseURI;
   }
 
@@ -17,24 +17,23 @@ package io.fixprotocol.orchestra.interfaces;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.URL;
 import java.util.Objects;
 import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Source;
-import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.w3c.dom.Document;
 import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
 import io.fixprotocol.orchestra.event.ConsoleEventListener;
 import io.fixprotocol.orchestra.event.EventListener;
 import io.fixprotocol.orchestra.event.EventListenerFactory;
@@ -129,6 +128,9 @@ public class InterfacesValidator {
    * formed XML, or if errors are produced that recoverable for the parser but would lead to an
    * invalid conversion. However, if only warnings are produced, the file is considered valid.
    *
+   * The file is parsed as a stream and validated as it is read, so memory use does not grow with
+   * the size of the file.
+   *
    * @param inputStream input schema file
    * @return Returns {@code true} if the file does not have serious errors, {@code false} if it
    *         does.
@@ -155,14 +157,14 @@ public class InterfacesValidator {
     }
   }
 
-  private Document validateSchema(InputStream inputStream, ErrorListener errorHandler)
+  private void validateSchema(InputStream inputStream, ErrorListener errorHandler)
       throws ParserConfigurationException, SAXException, IOException {
-    // parse an XML document into a DOM tree
-    final DocumentBuilderFactory parserFactory = DocumentBuilderFactory.newInstance();
+    // stream the document, resolving XIncludes as it is parsed, rather than building a DOM tree
+    final SAXParserFactory parserFactory = SAXParserFactory.newInstance();
     parserFactory.setNamespaceAware(true);
     parserFactory.setXIncludeAware(true);
-    final DocumentBuilder parser = parserFactory.newDocumentBuilder();
-    final Document document = parser.parse(inputStream);
+    final XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+    reader.setErrorHandler(errorHandler);
 
     // create a SchemaFactory capable of understanding WXS schemas
     final SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
@@ -170,23 +172,20 @@ public class InterfacesValidator {
     factory.setResourceResolver(resourceResolver);
 
     // load a WXS schema, represented by a Schema instance
-    final URL resourceUrl = this.getClass().getClassLoader().getResource("xsd/interfaces.xsd");
-    final String path = Objects.requireNonNull(resourceUrl).getPath();
-    final String parentPath = path.substring(0, path.lastIndexOf('/'));
-    final URL baseUrl = new URL(resourceUrl.getProtocol(), null, parentPath);
-    resourceResolver.setBaseUrl(baseUrl);
-
-    final Source schemaFile = new StreamSource(resourceUrl.openStream());
-    final Schema schema = factory.newSchema(schemaFile);
+    final Schema schema;
+    try (InputStream schemaStream = Objects
+        .requireNonNull(ResourceResolver.getResourceAsStream(ResourceResolver.ROOT_SCHEMA))) {
+      final Source schemaFile = new StreamSource(schemaStream);
+      schema = factory.newSchema(schemaFile);
+    }
 
     // create a Validator instance, which can be used to validate an instance document
     final Validator validator = schema.newValidator();
 
     validator.setErrorHandler(errorHandler);
 
-    // validate the DOM tree
-    validator.validate(new DOMSource(document));
-    return document;
+    // validate the stream of parser events
+    validator.validate(new SAXSource(reader, new InputSource(inputStream)));
   }
 
 }
@@ -49,6 +49,15 @@ public class JSONEventListener implements EventListener {
     }
   }
 
+  /**
+   * Gives subclasses access to the underlying generator to extend the JSON document
+   *
+   * @return the JSON generator, or {@code null} if output has not been set
+   */
+  protected JsonGenerator getGenerator() {
+    return generator;
+  }
+
   public void setOutputStream(OutputStream outputStream) throws IOException {
     final JsonFactory factory = new JsonFactory();
     generator = factory.createGenerator(outputStream);
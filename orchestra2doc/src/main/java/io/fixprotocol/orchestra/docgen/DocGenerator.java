@@ -18,37 +18,57 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Comparator;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.Marshaller;
 import javax.xml.bind.ValidationEvent;
 import javax.xml.bind.ValidationEventHandler;
-
+import javax.xml.namespace.QName;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
 import org.purl.dc.elements._1.SimpleLiteral;
 import org.stringtemplate.v4.NoIndentWriter;
 import org.stringtemplate.v4.ST;
 import org.stringtemplate.v4.STErrorListener;
 import org.stringtemplate.v4.STGroup;
-import org.stringtemplate.v4.STGroupFile;
 import org.stringtemplate.v4.STWriter;
 import org.stringtemplate.v4.misc.STMessage;
 
 import io.fixprotocol._2024.orchestra.repository.ActorType;
-import io.fixprotocol._2024.orchestra.repository.Actors;
-import io.fixprotocol._2024.orchestra.repository.CatComponentTypeT;
-import io.fixprotocol._2024.orchestra.repository.Categories;
 import io.fixprotocol._2024.orchestra.repository.CategoryType;
 import io.fixprotocol._2024.orchestra.repository.CodeSetType;
 import io.fixprotocol._2024.orchestra.repository.CodeType;
@@ -69,6 +89,8 @@ import io.fixprotocol._2024.orchestra.repository.Repository;
 import io.fixprotocol._2024.orchestra.repository.ResponseType;
 import io.fixprotocol._2024.orchestra.repository.StateMachineType;
 import io.fixprotocol._2024.orchestra.repository.SupportType;
+import io.fixprotocol.orchestra.repository.jaxb.RepositoryJAXBContext;
+import net.sourceforge.plantuml.version.Version;
 
 /**
  * @author Don Mendelson
@@ -76,7 +98,124 @@ import io.fixprotocol._2024.orchestra.repository.SupportType;
  */
 public class DocGenerator {
 
-  // without this, output was not getting flushed since ST was not closing the file
+  /**
+   * Builds a DocGenerator
+   */
+  public static class Builder {
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private PrintStream errorStream = System.err;
+    private String imageCacheDir;
+    private boolean incremental = false;
+    private String inputFile;
+    private InputStream inputStream;
+    private String outputRootDir = "./doc";
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean streaming = false;
+
+    public DocGenerator build() {
+      return new DocGenerator(this);
+    }
+
+    /**
+     * @param compressionLevel compression level of a zip archive, 0-9. If 0, entries are stored
+     *        without compression. Defaults to the standard level of the deflate algorithm.
+     * @return this Builder
+     */
+    public Builder compressionLevel(final int compressionLevel) {
+      this.compressionLevel = compressionLevel;
+      return this;
+    }
+
+    /**
+     * @param errorStream output stream for errors. Defaults to {@code System.err}.
+     * @return this Builder
+     */
+    public Builder errorStream(final PrintStream errorStream) {
+      this.errorStream = errorStream;
+      return this;
+    }
+
+    /**
+     * @param imageCacheDir directory of previously rendered diagrams. A diagram is only rendered
+     *        if it has changed since it was cached. If not set, diagrams are not cached.
+     * @return this Builder
+     */
+    public Builder imageCacheDir(final String imageCacheDir) {
+      this.imageCacheDir = imageCacheDir;
+      return this;
+    }
+
+    /**
+     * @param incremental if {@code true}, only pages whose elements changed since the previous
+     *        generation to the same output directory are rendered, and pages of removed elements
+     *        are deleted. Ignored for a zip archive. Defaults to {@code false}.
+     * @return this Builder
+     */
+    public Builder incremental(final boolean incremental) {
+      this.incremental = incremental;
+      return this;
+    }
+
+    /**
+     * @param inputFile path of input Orchestra file. Takes precedence over an input stream.
+     * @return this Builder
+     */
+    public Builder inputFile(final String inputFile) {
+      this.inputFile = inputFile;
+      return this;
+    }
+
+    /**
+     * @param inputStream input Orchestra file
+     * @return this Builder
+     */
+    public Builder inputStream(final InputStream inputStream) {
+      this.inputStream = inputStream;
+      return this;
+    }
+
+    /**
+     * @param outputRootDir root of file system to write documentation files. If the path ends in
+     *        <code>.zip</code>, then a zip archive is created. If the path contains
+     *        <code>temp</code>, then a temporary file is created. Defaults to <code>./doc</code>.
+     * @return this Builder
+     */
+    public Builder outputRootDir(final String outputRootDir) {
+      this.outputRootDir = outputRootDir;
+      return this;
+    }
+
+    /**
+     * @param parallelism maximum number of pages, and separately of diagrams, to render
+     *        concurrently. If 1, pages are rendered in sequence on the calling thread. Defaults to
+     *        the number of processors.
+     * @return this Builder
+     */
+    public Builder parallelism(final int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * @param streaming if {@code true}, the members of components and groups, the structures and
+     *        responses of messages and the codes of code sets are read and rendered a batch at a
+     *        time. The headers and documentation of all elements remain in memory, as does a search
+     *        entry for each code. The input is read twice; an input stream is first copied to a
+     *        temporary file. Defaults to {@code false}.
+     * @return this Builder
+     */
+    public Builder streaming(final boolean streaming) {
+      this.streaming = streaming;
+      return this;
+    }
+  }
+
+  @FunctionalInterface
+  private interface PageRenderer {
+    void render() throws Exception;
+  }
+
+  // ST does not close the file, so its writer is closed to complete the file
   private static class STWriterWrapper extends NoIndentWriter implements AutoCloseable {
 
     STWriterWrapper(final Writer out) {
@@ -85,11 +224,16 @@ public class DocGenerator {
 
     @Override
     public void close() throws Exception {
-      this.out.flush();
+      this.out.close();
     }
 
   }
 
+  // detail pages of streamed elements are submitted a batch at a time, and a bounded number of
+  // batches is rendered at once, bounding the elements held in memory
+  private static final int STREAM_BATCH_SIZE = 256;
+  private static final int STREAM_BATCHES_IN_FLIGHT = 2;
+  private static final STGroup stGroup = TemplateGroups.load("templates/docgen.stg");
   private final static Map<SupportType, String> supportedMap = new HashMap<>();
 
   static {
@@ -98,9 +242,23 @@ public class DocGenerator {
     supportedMap.put(SupportType.IGNORED, "&ndash;");
   }
 
+  public static Builder builder() {
+    return new Builder();
+  }
+
   /**
    * Generates documentation
    *
+   * <pre>
+   * usage: DocGenerator [options] &lt;input-file&gt; [output-uri] [error-path]
+   * -?,--help display usage
+   * -c,--image-cache &lt;arg&gt; directory of previously rendered diagrams
+   * -i,--incremental render only pages that changed since the previous run
+   * -p,--parallelism &lt;arg&gt; maximum number of pages to render concurrently
+   * -s,--streaming read and render messages and their parts a batch at a time
+   * -z,--compression-level &lt;arg&gt; compression level of a zip archive, 0-9
+   * </pre>
+   *
    * @param args command line arguments
    *        <ol>
    *        <li>Name of an Orchestra input file.
@@ -114,41 +272,123 @@ public class DocGenerator {
    * @throws IOException if input file is not found or cannot be read
    */
   public static void main(final String[] args) throws Exception {
-    if (args.length < 1) {
-      System.err.println(
-          "Usage: java io.fixprotocol.orchestra.docgen.DocGenerator <input-file> [output-uri] [error-path]");
-    } else {
-      final InputStream inputStream = new FileInputStream(args[0]);
+    final Options options = new Options();
+    options.addOption(Option.builder("p").desc("maximum number of pages to render concurrently")
+        .longOpt("parallelism").numberOfArgs(1).build());
+    options.addOption(Option.builder("c").desc("directory of previously rendered diagrams")
+        .longOpt("image-cache").numberOfArgs(1).build());
+    options.addOption(Option.builder("z").desc("compression level of a zip archive, 0-9")
+        .longOpt("compression-level").numberOfArgs(1).build());
+    options.addOption(Option.builder("i")
+        .desc("render only pages that changed since the previous run").longOpt("incremental")
+        .build());
+    options.addOption(Option.builder("s")
+        .desc("read and render messages and their parts a batch at a time").longOpt("streaming")
+        .build());
+    options.addOption(Option.builder("?").desc("display usage").longOpt("help").build());
+
+    final HelpFormatter formatter = new HelpFormatter();
+    final String usage = "DocGenerator [options] <input-file> [output-uri] [error-path]";
+    final Builder builder;
+    try {
+      final CommandLine cmd = new DefaultParser().parse(options, args);
+      final List<String> argList = cmd.getArgList();
+      if (cmd.hasOption("?") || argList.isEmpty()) {
+        formatter.printHelp(usage, options);
+        return;
+      }
+      builder = builder().inputFile(argList.get(0));
 
-      final String outputRootDir;
-      if (args.length > 1) {
-        outputRootDir = args[1];
-      } else {
-        outputRootDir = "./doc";
+      if (argList.size() > 1) {
+        builder.outputRootDir(argList.get(1));
       }
 
-      final PrintStream errorStream;
-      if (args.length > 2) {
-        final File errFile = new File(args[2]);
+      if (argList.size() > 2) {
+        final File errFile = new File(argList.get(2));
         Files.createDirectories(errFile.toPath().getParent());
-        errorStream = new PrintStream(errFile);
-      } else {
-        errorStream = System.err;
+        builder.errorStream(new PrintStream(errFile));
+      }
+
+      if (cmd.hasOption("c")) {
+        builder.imageCacheDir(cmd.getOptionValue("c"));
+      }
+
+      if (cmd.hasOption("z")) {
+        builder.compressionLevel(
+            intOptionValue(cmd, "z", Deflater.NO_COMPRESSION, Deflater.BEST_COMPRESSION));
+      }
+
+      if (cmd.hasOption("i")) {
+        builder.incremental(true);
       }
 
-      final DocGenerator gen = new DocGenerator(inputStream, outputRootDir, errorStream);
-      gen.generate();
+      if (cmd.hasOption("p")) {
+        builder.parallelism(intOptionValue(cmd, "p", 1, Integer.MAX_VALUE));
+      }
+
+      if (cmd.hasOption("s")) {
+        builder.streaming(true);
+      }
+    } catch (final ParseException e) {
+      System.err.println(e.getMessage());
+      formatter.printHelp(usage, options);
+      System.exit(1);
+      return;
     }
+
+    builder.build().generate();
   }
 
+  /**
+   * @return the value of an option that takes an integer
+   * @throws ParseException if the value is not an integer from min to max
+   */
+  private static int intOptionValue(final CommandLine cmd, final String option, final int min,
+                                    final int max) throws ParseException {
+    final String value = cmd.getOptionValue(option);
+    try {
+      final int intValue = Integer.parseInt(value);
+      if (intValue >= min && intValue <= max) {
+        return intValue;
+      }
+    } catch (final NumberFormatException e) {
+      // reported below
+    }
+    final String expected = max == Integer.MAX_VALUE ? String.format("at least %d", min)
+        : String.format("%d-%d", min, max);
+    throw new ParseException(
+        String.format("Invalid value of option %s: %s; expected %s", option, value, expected));
+  }
+
+  private Path baseOutputPath;
+  private Map<Integer, ComponentType> componentsById;
+  private final int compressionLevel;
+  private Set<String> datatypeNames;
+  // weak, so that streamed elements are not retained after their pages are rendered
+  private final Map<Object, byte[]> elementHashes =
+      Collections.synchronizedMap(new WeakHashMap<>());
   private final PrintStream errorStream;
-  private final ImgGenerator imgGenerator = new ImgGenerator();
+  // renders pages if parallelism is greater than one; shared by all pages of a generation
+  private ExecutorService executor;
+  private Map<Integer, FieldType> fieldsById;
+  private Map<String, FlowType> flowsByName;
+  private byte[] formatHash;
+  private Map<Integer, GroupType> groupsById;
+  private final String imageCacheDir;
+  private ImgGenerator imgGenerator;
+  private final boolean incremental;
+  private final String inputFile;
   private final InputStream inputStream;
   private final String outputRootDir;
+  private Manifest manifest;
+  private final ThreadLocal<List<Path>> pageOutputs = new ThreadLocal<>();
+  private final int parallelism;
   private PathManager pathManager;
+  private Manifest previousManifest;
   private Repository repository;
+  private SearchIndex searchIndex;
+  private final boolean streaming;
 
-  private final STGroup stGroup;
   private final STErrorListener templateErrorListener = new STErrorListener() {
 
     @Override
@@ -205,11 +445,20 @@ public class DocGenerator {
    * @param errorStream output stream for errors
    */
   public DocGenerator(final InputStream inputStream, final String outputRootDir, final PrintStream errorStream) {
-    this.outputRootDir = outputRootDir;
-    this.stGroup = new STGroupFile("templates/docgen.stg", '$', '$');
+    this(builder().inputStream(inputStream).outputRootDir(outputRootDir).errorStream(errorStream));
+  }
+
+  private DocGenerator(final Builder builder) {
+    this.outputRootDir = builder.outputRootDir;
     // STGroup.verbose = true;
-    this.inputStream = inputStream;
-    this.errorStream = errorStream;
+    this.inputFile = builder.inputFile;
+    this.inputStream = builder.inputStream;
+    this.errorStream = builder.errorStream;
+    this.parallelism = builder.parallelism;
+    this.imageCacheDir = builder.imageCacheDir;
+    this.incremental = builder.incremental;
+    this.compressionLevel = builder.compressionLevel;
+    this.streaming = builder.streaming;
   }
 
   /**
@@ -218,154 +467,299 @@ public class DocGenerator {
    * @throws Exception if input cannot be read or output cannot be written to a file
    */
   public void generate() throws Exception {
-    this.repository = unmarshal(inputStream);
+    RepositoryStreamReader streamReader = null;
+    Path tempInputPath = null;
+    if (streaming) {
+      if (inputFile == null) {
+        tempInputPath = copyToTempFile(inputStream);
+      }
+      streamReader = new RepositoryStreamReader(
+          tempInputPath != null ? tempInputPath : Paths.get(inputFile), unmarshallerErrorHandler);
+      this.repository = streamReader.readIndex();
+    } else if (inputFile != null) {
+      try (final InputStream in = new FileInputStream(inputFile)) {
+        this.repository = unmarshal(in);
+      }
+    } else {
+      this.repository = unmarshal(inputStream);
+    }
+    indexRepository();
 
     // Implementation note: consideration was given to supporting "jar:file:" scheme, but the
     // supporting FileSystem is not guaranteed to be installed.
 
-    pathManager = getPathManager(outputRootDir);
-
-    final Path baseOutputPath = pathManager.makeRootPath(outputRootDir);
-    createCss(baseOutputPath);
-
-    generateMain(baseOutputPath, getTitle());
-    generateMetadata(baseOutputPath, repository, repository.getMetadata().getAny());
+    // closed after a failure as well, releasing the files held by a zip writer
+    try (final PathManager manager = getPathManager(outputRootDir)) {
+      this.pathManager = manager;
+      generatePages(streamReader, tempInputPath);
+    }
+  }
 
+  private void generatePages(RepositoryStreamReader streamReader, Path tempInputPath)
+      throws Exception {
+    baseOutputPath = pathManager.makeRootPath(outputRootDir);
     final Path datatypesOutputPath = pathManager.makeDirectory(baseOutputPath.resolve("datatypes"));
-    generateDatatypeList(datatypesOutputPath, repository.getDatatypes().getDatatype());
-    repository.getDatatypes().getDatatype().forEach(d -> {
-      try {
-        generateDatatype(datatypesOutputPath, d);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
-      }
-    });
     final Path fieldsOutputPath = pathManager.makeDirectory(baseOutputPath.resolve("fields"));
-    final List<FieldType> sortedFieldList = repository.getFields().getField().stream()
-        .sorted(Comparator.comparing(FieldType::getName)).collect(Collectors.toList());
-    generateFieldsList(fieldsOutputPath, sortedFieldList);
-    repository.getFields().getField().forEach(f -> {
-      try {
-        generateFieldDetail(fieldsOutputPath, f);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
-      }
-    });
-
-    final List<CodeSetType> allCodeSets = repository.getCodeSets().getCodeSet();
-    generateCodeSetList(datatypesOutputPath, allCodeSets.stream()
-        .sorted(Comparator.comparing(CodeSetType::getName)).collect(Collectors.toList()));
-    repository.getCodeSets().getCodeSet().forEach(cs -> {
-      try {
-        generateCodeSetDetail(datatypesOutputPath, cs);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
-      }
-    });
-
     final Path messagesDocPath = pathManager.makeDirectory(baseOutputPath.resolve("messages"));
     final Path messagesImgPath = pathManager.makeDirectory(messagesDocPath.resolve("img"));
+    final Path searchOutputPath = pathManager.makeDirectory(baseOutputPath.resolve("search"));
 
-    final Optional<Categories> optCategories = Optional.ofNullable(repository.getCategories());
-
-    final List<CategoryType> sortedCategoryList =
-        optCategories.orElse(new Categories()).getCategory().stream()
-            .filter(c -> c.getComponentType() == CatComponentTypeT.MESSAGE).sorted((o1, o2) -> {
-              final String sectionValue1 = o1.getSection() != null ? o1.getSection() : "";
-              final String sectionValue2 = o2.getSection() != null ? o2.getSection() : "";
-              int retv = sectionValue1.compareTo(sectionValue2);
-              if (retv == 0) {
-                retv = o1.getName().compareTo(o2.getName());
-              }
-              return retv;
-            }).collect(Collectors.toList());
-
-    generateCategories(messagesDocPath, "Message Categories", sortedCategoryList);
+    if (incremental) {
+      if (pathManager instanceof FileManager) {
+        previousManifest = Manifest.load(baseOutputPath.resolve(Manifest.FILE_NAME));
+        manifest = new Manifest();
+        formatHash = formatHash();
+      } else {
+        errorStream.println("Incremental generation requires an output directory; generating all pages");
+      }
+    }
 
-    final List<MessageType> sortedMessageList =
-        repository.getMessages().getMessage().stream().sorted(Comparator.comparing(MessageType::getName).thenComparing(MessageType::getScenario)).collect(Collectors.toList());
+    // Each page writes its own files, so pages may be rendered in any order
+    final List<PageRenderer> pages = new ArrayList<>();
+    pages.add(page("css", () -> createCss(baseOutputPath)));
+    final String title = getTitle();
+    pages.add(page("index", () -> generateMain(baseOutputPath, title), title));
+    pages.add(page("metadata",
+        () -> generateMetadata(baseOutputPath, repository, repository.getMetadata().getAny()),
+        repository.getName(), repository.getVersion(), repository.getMetadata()));
+
+    final List<Datatype> datatypeList = repository.getDatatypes().getDatatype();
+    pages.add(page("datatypes", () -> generateDatatypeList(datatypesOutputPath, datatypeList),
+        datatypeList));
+    datatypeList.forEach(d -> pages.add(page("datatype/" + d.getName(),
+        () -> generateDatatype(datatypesOutputPath, d), d)));
+
+    final RepositoryViews views = new RepositoryViews(repository);
+
+    pages.add(page("fields", () -> generateFieldsList(fieldsOutputPath, views.getFields()),
+        views.getFields()));
+    searchIndex = new SearchIndex();
+    repository.getFields().getField().forEach(f -> {
+      searchIndex.addField(f);
+      pages.add(page(String.format("field/%s-%s", f.getName(), f.getScenario()),
+          () -> generateFieldDetail(fieldsOutputPath, f), f,
+          getTypeLink(f.getType(), f.getScenario())));
+    });
 
-    final Optional<Actors> actors = Optional.ofNullable(repository.getActors());
+    pages.add(page("codeSets", () -> generateCodeSetList(datatypesOutputPath, views.getCodeSets()),
+        views.getCodeSets()));
 
-    final List<ActorType> actorList =
-        actors.orElse(new Actors()).getActorOrFlow().stream().filter(af -> af instanceof ActorType)
-            .map(af -> (ActorType) af).collect(Collectors.toList());
-    generateActorsList(messagesDocPath, actorList);
-    actorList.forEach(a -> {
-      try {
-        generateActorDetail(messagesDocPath, messagesImgPath, a);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
-      }
-    });
+    final List<CategoryType> categoryList = views.getMessageCategories();
+    pages.add(page("categories",
+        () -> generateCategories(messagesDocPath, "Message Categories", categoryList),
+        categoryList));
 
+    final List<ActorType> actorList = views.getActors();
+    pages.add(page("actors", () -> generateActorsList(messagesDocPath, actorList), actorList));
+    actorList.forEach(a -> pages.add(page("actor/" + a.getName(),
+        () -> generateActorDetail(messagesDocPath, messagesImgPath, a), a,
+        getReferences(a.getFieldOrFieldRefOrComponent()))));
 
-    final List<FlowType> flowList = actors.orElse(new Actors()).getActorOrFlow().stream()
-        .filter(af -> af instanceof FlowType).map(af -> (FlowType) af).collect(Collectors.toList());
-    generateFlowsList(messagesDocPath, flowList);
+    final List<FlowType> flowList = views.getFlows();
+    pages.add(page("flows", () -> generateFlowsList(messagesDocPath, flowList), flowList));
     flowList.forEach(f -> {
-      try {
-        generateFlowDetail(messagesDocPath, f);
-
-        generateMessageListByFlow(messagesDocPath, f, sortedMessageList);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
-      }
+      final List<MessageType> flowMessages = views.getMessagesByFlow(f.getName());
+      pages.add(page("flow/" + f.getName(), () -> generateFlowDetail(messagesDocPath, f), f));
+      pages.add(page("flowMessages/" + f.getName(),
+          () -> generateMessageListByFlow(messagesDocPath, f, flowMessages), f, flowMessages));
     });
 
+    pages.add(page("messages", () -> generateAllMessageList(messagesDocPath, views.getMessages()),
+        views.getMessages()));
 
-    generateAllMessageList(messagesDocPath, sortedMessageList);
-
-    sortedCategoryList.forEach(c -> {
-      try {
-        generateMessageListByCategory(messagesDocPath, c, sortedMessageList);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
-      }
+    categoryList.forEach(c -> {
+      final List<MessageType> categoryMessages = views.getMessagesByCategory(c.getName());
+      pages.add(page("categoryMessages/" + c.getName(),
+          () -> generateMessageListByCategory(messagesDocPath, c, categoryMessages), c,
+          categoryMessages));
     });
 
-    final List<ComponentType> componentList = repository.getComponents().getComponent();
-    final List<ComponentType> sortedComponentList =
-        componentList.stream().sorted(Comparator.comparing(ComponentType::getName).thenComparing(ComponentType::getScenario)).collect(Collectors.toList());
+    pages.add(page("components",
+        () -> generateAllComponentsList(messagesDocPath, views.getComponents()),
+        views.getComponents()));
+
+    pages.add(page("groups", () -> generateAllGroupsList(messagesDocPath, views.getGroups()),
+        views.getGroups()));
+
+    // detail pages of the elements that are streamed in streaming mode
+    if (streamReader == null) {
+      repository.getCodeSets().getCodeSet().forEach(cs -> pages
+          .add(detailPage(cs, datatypesOutputPath, messagesDocPath, messagesImgPath)));
+      repository.getComponents().getComponent().forEach(c -> pages
+          .add(detailPage(c, datatypesOutputPath, messagesDocPath, messagesImgPath)));
+      repository.getGroups().getGroup().forEach(g -> pages
+          .add(detailPage(g, datatypesOutputPath, messagesDocPath, messagesImgPath)));
+      repository.getMessages().getMessage().forEach(m -> pages
+          .add(detailPage(m, datatypesOutputPath, messagesDocPath, messagesImgPath)));
+    }
 
-    generateAllComponentsList(messagesDocPath, sortedComponentList);
-    componentList.forEach(c -> {
-      try {
-        generateComponentDetail(messagesDocPath, c);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
+    executor = parallelism > 1 ? Executors.newWorkStealingPool(parallelism) : null;
+    try (ImgGenerator imgGenerator = new ImgGenerator(parallelism,
+        imageCacheDir != null ? Paths.get(imageCacheDir) : null)) {
+      this.imgGenerator = imgGenerator;
+      render(pages);
+
+      if (streamReader != null) {
+        // the next batch is read while earlier batches are rendered
+        final Deque<List<Future<?>>> batchesInFlight = new ArrayDeque<>();
+        final List<PageRenderer> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        try {
+          streamReader.readElements(element -> {
+            batch.add(detailPage(element, datatypesOutputPath, messagesDocPath, messagesImgPath));
+            if (batch.size() == STREAM_BATCH_SIZE) {
+              if (batchesInFlight.size() == STREAM_BATCHES_IN_FLIGHT) {
+                await(batchesInFlight.removeFirst());
+              }
+              batchesInFlight.addLast(submit(batch));
+              batch.clear();
+            }
+          });
+          batchesInFlight.addLast(submit(batch));
+          while (!batchesInFlight.isEmpty()) {
+            await(batchesInFlight.removeFirst());
+          }
+        } finally {
+          if (tempInputPath != null) {
+            Files.deleteIfExists(tempInputPath);
+          }
+        }
       }
-    });
-
-    final List<GroupType> groupList = repository.getGroups().getGroup();
-    final List<GroupType> sortedGroupList = groupList.stream().sorted(Comparator.comparing(GroupType::getName).thenComparing(GroupType::getScenario)).collect(Collectors.toList());
-    generateAllGroupsList(messagesDocPath, sortedGroupList);
 
-    groupList.forEach(c -> {
-      try {
-        generateGroupDetail(messagesDocPath, c);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
+      // rendered last, once all elements have been indexed
+      final Map<String, String> searchScripts = searchIndex.scripts();
+      render(Collections.singletonList(
+          page("search", () -> generateSearch(baseOutputPath, searchOutputPath, searchScripts),
+              new ArrayList<>(searchScripts.values()))));
+    } finally {
+      if (executor != null) {
+        // abandons remaining pages after a failure
+        executor.shutdownNow();
+        executor = null;
       }
-    });
-    repository.getMessages().getMessage().forEach(m -> {
-      try {
-        generateMessageDetail(messagesDocPath, messagesImgPath, m);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
+    }
+
+    if (manifest != null) {
+      // files of pages whose elements were removed
+      final Set<String> files = manifest.files();
+      for (final String file : previousManifest.files()) {
+        if (!files.contains(file)) {
+          Files.deleteIfExists(baseOutputPath.resolve(file));
+        }
       }
-    });
-    pathManager.close();
+      manifest.save(baseOutputPath.resolve(Manifest.FILE_NAME));
+    }
+  }
+
+  /**
+   * Copies an input stream so that it can be read more than once
+   */
+  private static Path copyToTempFile(final InputStream inputStream) throws IOException {
+    final Path path = Files.createTempFile("orchestra", ".xml");
+    path.toFile().deleteOnExit();
+    Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+    return path;
   }
 
   private void createCss(final Path baseOutputPath) throws IOException {
     final Path pathCss = baseOutputPath.resolve("orchestra.css");
     final ClassLoader classLoader = getClass().getClassLoader();
     try (final InputStream in = classLoader.getResourceAsStream("orchestra.css")) {
+      recordOutput(pathCss);
       this.pathManager.copyStreamToPath(in, pathCss);
     }
   }
 
+  /**
+   * Indexes a code set, component, group or message for search, and wraps the renderer of its
+   * detail page
+   */
+  private PageRenderer detailPage(final Object element, final Path datatypesOutputPath,
+                                  final Path messagesDocPath, final Path messagesImgPath) {
+    if (element instanceof CodeSetType) {
+      final CodeSetType cs = (CodeSetType) element;
+      searchIndex.addCodeSet(cs);
+      return page(String.format("codeSet/%s-%s", cs.getName(), cs.getScenario()),
+          () -> generateCodeSetDetail(datatypesOutputPath, cs), cs);
+    } else if (element instanceof ComponentType) {
+      final ComponentType c = (ComponentType) element;
+      searchIndex.addComponent(c);
+      return page(String.format("component/%s-%s", c.getName(), c.getScenario()),
+          () -> generateComponentDetail(messagesDocPath, c), c,
+          getReferences(c.getComponentRefOrGroupRefOrFieldRef()));
+    } else if (element instanceof GroupType) {
+      final GroupType g = (GroupType) element;
+      searchIndex.addGroup(g);
+      return page(String.format("group/%s-%s", g.getName(), g.getScenario()),
+          () -> generateGroupDetail(messagesDocPath, g), g,
+          getField(g.getNumInGroup().getId().intValue()),
+          getReferences(g.getComponentRefOrGroupRefOrFieldRef()));
+    } else {
+      final MessageType m = (MessageType) element;
+      searchIndex.addMessage(m);
+      return page(String.format("message/%s-%s", m.getName(), m.getScenario()),
+          () -> generateMessageDetail(messagesDocPath, messagesImgPath, m), m,
+          getReferences(m.getStructure().getComponentRefOrGroupRefOrFieldRef()),
+          getFlow(m.getFlow()));
+    }
+  }
+
+  /**
+   * Hashes an element, a value or a list of them. An element is hashed by its XML, which is computed
+   * once for each element as it may be referenced by many pages.
+   */
+  private byte[] elementHash(final Object source) throws JAXBException {
+    if (source == null) {
+      return new byte[0];
+    } else if (source instanceof String) {
+      return newDigest().digest(((String) source).getBytes(StandardCharsets.UTF_8));
+    } else if (source instanceof List) {
+      final MessageDigest digest = newDigest();
+      for (final Object element : (List<?>) source) {
+        digest.update(elementHash(element));
+      }
+      return digest.digest();
+    }
+
+    byte[] hash = elementHashes.get(source);
+    if (hash == null) {
+      final MessageDigest digest = newDigest();
+      final Marshaller marshaller = RepositoryJAXBContext.borrowMarshaller();
+      try {
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        @SuppressWarnings("unchecked")
+        final Class<Object> type = (Class<Object>) source.getClass();
+        marshaller.marshal(new JAXBElement<>(new QName("element"), type, source),
+            new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+      } finally {
+        RepositoryJAXBContext.returnMarshaller(marshaller);
+      }
+      hash = digest.digest();
+      elementHashes.put(source, hash);
+    }
+    return hash;
+  }
+
+  /**
+   * Hashes the resources and versions that determine the format of pages, so that all pages are
+   * rendered again when any of them changes
+   */
+  private static byte[] formatHash() throws IOException {
+    final MessageDigest digest = newDigest();
+    final ClassLoader classLoader = DocGenerator.class.getClassLoader();
+    for (final String resource : new String[] {"orchestra.css", "templates/docgen.stg",
+        "templates/imggen.stg"}) {
+      try (final InputStream in = classLoader.getResourceAsStream(resource)) {
+        digest.update(in.readAllBytes());
+      }
+    }
+    final String implementationVersion = DocGenerator.class.getPackage().getImplementationVersion();
+    if (implementationVersion != null) {
+      digest.update(implementationVersion.getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update(Version.versionString().getBytes(StandardCharsets.UTF_8));
+    return digest.digest();
+  }
+
   private void generateActorDetail(final Path messagesDocPath, final Path messagesImgPath, final ActorType actor)
       throws Exception {
 
@@ -385,16 +779,17 @@ public class DocGenerator {
       stActor2.add("actor", actor);
       stActor2.write(writer, templateErrorListener);
 
+      final ST stStates = stGroup.getInstanceOf("stateMachine");
       for (final Object stateMachine : stateMachines) {
-        final ST stStates = stGroup.getInstanceOf("stateMachine");
+        stStates.remove("states");
         stStates.add("states", stateMachine);
         stStates.write(writer, templateErrorListener);
       }
     }
 
     for (final Object stateMachine : stateMachines) {
-      imgGenerator.generateUMLStateMachine(messagesImgPath, pathManager,
-          (StateMachineType) stateMachine, templateErrorListener);
+      recordOutput(imgGenerator.generateUMLStateMachine(messagesImgPath, pathManager,
+          (StateMachineType) stateMachine, templateErrorListener));
     }
   }
 
@@ -462,8 +857,10 @@ public class DocGenerator {
       stCodesetStart.write(writer, templateErrorListener);
 
       final List<CodeType> codeList = codeSet.getCode();
+      final ST stCode = stGroup.getInstanceOf("code");
       for (final CodeType code : codeList) {
-        final ST stCode = stGroup.getInstanceOf("code");
+        stCode.remove("code");
+        stCode.remove("supported");
         stCode.add("code", code);
         stCode.add("supported", supportedMap.get(code.getSupported()));
         stCode.write(writer, templateErrorListener);
@@ -590,10 +987,15 @@ public class DocGenerator {
   }
 
   private void generateMembers(final List<Object> members, final STWriter writer) {
+    // template instances are reused for each member, replacing their attributes
+    final ST stField = stGroup.getInstanceOf("fieldMember");
+    final ST stComponent = stGroup.getInstanceOf("componentMember");
     for (final Object member : members) {
       if (member instanceof FieldRefType) {
         final FieldType field = getField(((FieldRefType) member).getId().intValue());
-        final ST stField = stGroup.getInstanceOf("fieldMember");
+        stField.remove("field");
+        stField.remove("presence");
+        stField.remove("assign");
         stField.add("field", field);
         if (((FieldRefType) member).getSupported() == SupportType.SUPPORTED) {
           stField.add("presence", getFieldPresence((FieldRefType) member));
@@ -604,7 +1006,8 @@ public class DocGenerator {
         stField.write(writer, templateErrorListener);
       } else if (member instanceof GroupRefType) {
         final GroupType component = getGroup(((GroupRefType) member).getId().intValue());
-        final ST stComponent = stGroup.getInstanceOf("componentMember");
+        stComponent.remove("component");
+        stComponent.remove("presence");
         stComponent.add("component", component);
         if (((ComponentRefType) member).getSupported() == SupportType.SUPPORTED) {
           stComponent.add("presence",
@@ -615,7 +1018,8 @@ public class DocGenerator {
         stComponent.write(writer, templateErrorListener);
       } else if (member instanceof ComponentRefType) {
         final ComponentType component = getComponent(((ComponentRefType) member).getId().intValue());
-        final ST stComponent = stGroup.getInstanceOf("componentMember");
+        stComponent.remove("component");
+        stComponent.remove("presence");
         stComponent.add("component", component);
         if (((ComponentRefType) member).getSupported() == SupportType.SUPPORTED) {
           stComponent.add("presence",
@@ -659,17 +1063,15 @@ public class DocGenerator {
 
     if (responses != null) {
       final FlowType flow = getFlow(message.getFlow());
-      imgGenerator.generateUMLSequence(messagesImgPath, pathManager, message, flow, responses,
-          templateErrorListener);
+      recordOutput(imgGenerator.generateUMLSequence(messagesImgPath, pathManager, message, flow,
+          responses, templateErrorListener));
     }
   }
 
   private void generateMessageListByCategory(final Path messagesDocPath, final CategoryType category,
                                              final List<MessageType> messageList) throws Exception {
     final ST st = stGroup.getInstanceOf("messages");
-    final List<MessageType> filteredMessageList = messageList.stream()
-        .filter(m -> category.getName().equals(m.getCategory())).collect(Collectors.toList());
-    st.add("messages", filteredMessageList);
+    st.add("messages", messageList);
     st.add("title", String.format("%s Messages", category.getName()));
     final Path path = messagesDocPath.resolve(String.format("%sMessages.html", category.getName()));
     try (final STWriterWrapper writer = getWriter(path)) {
@@ -680,9 +1082,7 @@ public class DocGenerator {
   private void generateMessageListByFlow(final Path messagesDocPath, final FlowType flow,
                                          final List<MessageType> messageList) throws Exception {
     final ST st = stGroup.getInstanceOf("messages");
-    final List<MessageType> filteredMessageList = messageList.stream()
-        .filter(m -> flow.getName().equals(m.getFlow())).collect(Collectors.toList());
-    st.add("messages", filteredMessageList);
+    st.add("messages", messageList);
     st.add("title", String.format("%s Messages", flow.getName()));
     final Path path = messagesDocPath.resolve(String.format("%sMessages.html", flow.getName()));
     try (final STWriterWrapper writer = getWriter(path)) {
@@ -701,13 +1101,34 @@ public class DocGenerator {
     }
   }
 
+  private void generateSearch(final Path baseOutputPath, final Path searchOutputPath,
+                              final Map<String, String> scripts) throws Exception {
+    final ST st = stGroup.getInstanceOf("search");
+    st.add("title", "Search fields, codes, messages, components and groups");
+    final Path path = baseOutputPath.resolve("search.html");
+    try (final STWriterWrapper writer = getWriter(path)) {
+      st.write(writer, templateErrorListener);
+    }
+
+    for (final Map.Entry<String, String> script : scripts.entrySet()) {
+      final Path scriptPath = searchOutputPath.resolve(script.getKey() + ".js");
+      recordOutput(scriptPath);
+      try (final Writer writer = pathManager.getWriter(scriptPath)) {
+        writer.write(script.getValue());
+      }
+    }
+  }
+
   private void generateResponses(final List<ResponseType> responseList, final STWriter writer) {
+    final ST st = stGroup.getInstanceOf("messageResponse");
     for (final ResponseType response : responseList) {
       final List<Object> responses = response.getMessageRefOrAssignOrTrigger();
       for (final Object responseRef : responses) {
         if (responseRef instanceof MessageRefType) {
           final MessageRefType messageRef = (MessageRefType) responseRef;
-          final ST st = stGroup.getInstanceOf("messageResponse");
+          st.remove("message");
+          st.remove("scenario");
+          st.remove("when");
           st.add("message", messageRef.getName());
           st.add("scenario", messageRef.getScenario());
           st.add("when", response.getWhen());
@@ -718,23 +1139,11 @@ public class DocGenerator {
   }
 
   private ComponentType getComponent(final int componentId) {
-    final List<ComponentType> components = repository.getComponents().getComponent();
-    for (final ComponentType component : components) {
-      if (component.getId().intValue() == componentId) {
-        return component;
-      }
-    }
-    return null;
+    return componentsById.get(componentId);
   }
 
   private FieldType getField(final int id) {
-    final List<FieldType> fields = repository.getFields().getField();
-    for (final FieldType fieldType : fields) {
-      if (fieldType.getId().intValue() == id) {
-        return fieldType;
-      }
-    }
-    return null;
+    return fieldsById.get(id);
   }
 
   private String getFieldPresence(final FieldRefType fieldRef) {
@@ -760,32 +1169,34 @@ public class DocGenerator {
   }
 
   private FlowType getFlow(final String name) {
-    final List<Object> afList = repository.getActors().getActorOrFlow();
-    for (final Object obj : afList) {
-      if (obj instanceof FlowType) {
-        final FlowType flow = (FlowType) obj;
-        if (flow.getName().equals(name)) {
-          return flow;
-        }
-      }
-    }
-    return null;
+    return flowsByName.get(name);
   }
 
   private GroupType getGroup(final int componentId) {
-    final List<GroupType> groups = repository.getGroups().getGroup();
-    for (final GroupType group : groups) {
-      if (group.getId().intValue() == componentId) {
-        return group;
+    return groupsById.get(componentId);
+  }
+
+  /**
+   * @return the definitions of fields, groups and components referenced by members
+   */
+  private List<Object> getReferences(final List<Object> members) {
+    final List<Object> references = new ArrayList<>();
+    for (final Object member : members) {
+      if (member instanceof FieldRefType) {
+        references.add(getField(((FieldRefType) member).getId().intValue()));
+      } else if (member instanceof GroupRefType) {
+        references.add(getGroup(((GroupRefType) member).getId().intValue()));
+      } else if (member instanceof ComponentRefType) {
+        references.add(getComponent(((ComponentRefType) member).getId().intValue()));
       }
     }
-    return null;
+    return references;
   }
 
   private PathManager getPathManager(final String path) {
-    final ZipFileManager zipFileManager = new ZipFileManager();
-    if (zipFileManager.isSupported(path)) {
-      return zipFileManager;
+    // the compression level is validated only if a zip archive is written
+    if (new ZipFileManager().isSupported(path)) {
+      return new ZipFileManager(compressionLevel);
     } else {
       return new FileManager();
     }
@@ -804,23 +1215,160 @@ public class DocGenerator {
   }
 
   private String getTypeLink(String type, String scenario) {
-    List<Datatype> datatypes = repository.getDatatypes().getDatatype();
-    for (final Datatype datatype : datatypes) {
-      if (datatype.getName().equals(type)) {
-        return String.format("../datatypes/%s.html", type);
-      }
+    if (datatypeNames.contains(type)) {
+      return String.format("../datatypes/%s.html", type);
     }
     return String.format("../datatypes/%s-%s.html", type, scenario);
   }
 
   private STWriterWrapper getWriter(final Path path) throws IOException {
+    recordOutput(path);
     return new STWriterWrapper(this.pathManager.getWriter(path));
   }
 
+  /**
+   * Indexes the definitions that are looked up by reference while rendering. If an identifier or
+   * name is duplicated, the first definition wins. The indexes are not modified while pages are
+   * rendered, so they may be read concurrently.
+   */
+  private void indexRepository() {
+    componentsById = new HashMap<>();
+    for (final ComponentType component : repository.getComponents().getComponent()) {
+      componentsById.putIfAbsent(component.getId().intValue(), component);
+    }
+    fieldsById = new HashMap<>();
+    for (final FieldType field : repository.getFields().getField()) {
+      fieldsById.putIfAbsent(field.getId().intValue(), field);
+    }
+    groupsById = new HashMap<>();
+    for (final GroupType group : repository.getGroups().getGroup()) {
+      groupsById.putIfAbsent(group.getId().intValue(), group);
+    }
+    datatypeNames = new HashSet<>();
+    for (final Datatype datatype : repository.getDatatypes().getDatatype()) {
+      datatypeNames.add(datatype.getName());
+    }
+    flowsByName = new HashMap<>();
+    if (repository.getActors() != null) {
+      for (final Object obj : repository.getActors().getActorOrFlow()) {
+        if (obj instanceof FlowType) {
+          flowsByName.putIfAbsent(((FlowType) obj).getName(), (FlowType) obj);
+        }
+      }
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Wraps the renderer of a page. In incremental mode, a page is skipped if the previous generation
+   * rendered it from the same elements, and otherwise the files that it writes are recorded in the
+   * manifest.
+   *
+   * @param name unique name of the page
+   * @param renderer renders the page
+   * @param sources elements, and values derived from them, that the page is rendered from
+   * @return a renderer of the page
+   */
+  private PageRenderer page(final String name, final PageRenderer renderer,
+                            final Object... sources) {
+    if (manifest == null) {
+      return renderer;
+    }
+    return () -> {
+      final MessageDigest digest = newDigest();
+      digest.update(formatHash);
+      digest.update(name.getBytes(StandardCharsets.UTF_8));
+      for (final Object source : sources) {
+        digest.update(elementHash(source));
+      }
+      final String key = new BigInteger(1, digest.digest()).toString(16);
+
+      if (previousManifest.isCurrent(name, key, baseOutputPath)) {
+        manifest.copy(previousManifest, name);
+      } else {
+        final List<Path> outputs = new ArrayList<>();
+        pageOutputs.set(outputs);
+        try {
+          renderer.render();
+        } finally {
+          pageOutputs.remove();
+        }
+        manifest.put(name, key, outputs.stream()
+            .map(p -> baseOutputPath.relativize(p).toString().replace(File.separatorChar, '/'))
+            .collect(Collectors.toList()));
+      }
+    };
+  }
+
+  private void recordOutput(final Path path) {
+    final List<Path> outputs = pageOutputs.get();
+    if (outputs != null) {
+      outputs.add(path);
+    }
+  }
+
+  /**
+   * Waits for pages that were submitted for rendering
+   *
+   * @throws Exception the first failure of a page
+   */
+  private void await(final List<Future<?>> futures) throws Exception {
+    try {
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw (Exception) cause;
+    }
+  }
+
+  /**
+   * Renders pages and waits for them to complete
+   *
+   * @throws Exception the first failure of a page
+   */
+  private void render(final List<PageRenderer> pages) throws Exception {
+    await(submit(pages));
+  }
+
+  /**
+   * Renders pages in order on the calling thread or, if parallelism is greater than one, submits
+   * them to be rendered concurrently
+   *
+   * @param pages pages to render. The list may be modified once this method returns.
+   * @return results of submitted pages, or an empty list if the pages were rendered
+   * @throws Exception the first failure of a page rendered on the calling thread
+   */
+  private List<Future<?>> submit(final List<PageRenderer> pages) throws Exception {
+    if (executor == null) {
+      for (final PageRenderer page : pages) {
+        page.render();
+      }
+      return Collections.emptyList();
+    }
+    final List<Future<?>> futures = new ArrayList<>(pages.size());
+    for (final PageRenderer page : pages) {
+      futures.add(executor.submit(() -> {
+        page.render();
+        return null;
+      }));
+    }
+    return futures;
+  }
+
   private Repository unmarshal(final InputStream inputStream) throws JAXBException {
-    final JAXBContext jaxbContext = JAXBContext.newInstance(Repository.class);
-    final Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-    jaxbUnmarshaller.setEventHandler(unmarshallerErrorHandler);
-    return (Repository) jaxbUnmarshaller.unmarshal(inputStream);
+    return RepositoryJAXBContext.unmarshal(inputStream, unmarshallerErrorHandler);
   }
 }
@@ -15,13 +15,13 @@
 
 package io.fixprotocol.orchestra.docgen;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -29,11 +29,17 @@ import java.nio.file.StandardCopyOption;
 
 /**
  * Path operations for default FileSystem
+ *
+ * <p>
+ * Files are written through buffers, and text is encoded as UTF-8.
+ * </p>
  * 
  * @author Don Mendelson
  */
 class FileManager implements PathManager {
 
+  private static final int BUFFER_SIZE = 16 * 1024;
+
   private Path rootPath;
 
   @Override
@@ -46,11 +52,11 @@ class FileManager implements PathManager {
   }
 
   public OutputStream getOutputStream(Path path) throws IOException {
-    return new FileOutputStream(path.toFile());
+    return new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
   }
 
   public Writer getWriter(Path path) throws IOException {
-    return new FileWriter(path.toString());
+    return Files.newBufferedWriter(path, StandardCharsets.UTF_8);
   }
 
   public boolean isSupported(String path) {
@@ -14,11 +14,24 @@
  */
 package io.fixprotocol.orchestra.docgen;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.stringtemplate.v4.NoIndentWriter;
 import org.stringtemplate.v4.ST;
@@ -33,16 +46,116 @@ import io.fixprotocol._2024.orchestra.repository.ResponseType;
 import io.fixprotocol._2024.orchestra.repository.StateMachineType;
 import io.fixprotocol._2024.orchestra.repository.Synchronization;
 import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.cucadiagram.dot.GraphvizUtils;
+import net.sourceforge.plantuml.version.Version;
 
-public class ImgGenerator {
+/**
+ * Generates UML diagrams as PNG images
+ *
+ * <p>
+ * The UML text of a diagram is generated on the calling thread, but PlantUML may render the image
+ * later on a pool of bounded size. Call {@link #close()} to wait for all images to be written.
+ * </p>
+ * <p>
+ * If a cache directory is configured, each rendered image is saved there under a hash of its UML
+ * text and of the PlantUML and Graphviz versions, since state machines are laid out by Graphviz.
+ * A diagram whose text is unchanged is copied from the cache rather than rendered again, including
+ * by later documentation builds.
+ * </p>
+ */
+public class ImgGenerator implements AutoCloseable {
+
+  /**
+   * Version reported by the Graphviz {@code dot} executable, or an error if it is not installed;
+   * obtained once since it runs a process
+   */
+  private static final class GraphvizVersion {
+    static final String value = graphvizVersion();
 
-  private final STGroupFile stGroup;
+    private static String graphvizVersion() {
+      try {
+        return GraphvizUtils.dotVersion();
+      } catch (final IOException e) {
+        return "unknown";
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return "unknown";
+      }
+    }
+  }
 
+  private static final String ERROR_DESCRIPTION = "(Error)";
+  private static final String[] RESPONSE_ATTRIBUTES =
+      {"messageName", "scenarioName", "async", "name", "isFirstAlt", "isAlt"};
+  private static final STGroupFile stGroup = TemplateGroups.load("templates/imggen.stg");
+
+  private final Path cacheDir;
+  private final ExecutorService executor;
+  private final List<Future<Void>> pending = new ArrayList<>();
+
+  /**
+   * Constructs an ImgGenerator that renders images on the calling thread without a cache
+   */
   public ImgGenerator() {
-    this.stGroup = new STGroupFile("templates/imggen.stg", '$', '$');
+    this(1, null);
   }
 
-  public void generateUMLStateMachine(Path messagesImgPath, PathManager fileSystemManager, StateMachineType stateMachine,
+  /**
+   * Constructs an ImgGenerator
+   *
+   * @param parallelism maximum number of images to render concurrently. If 1, images are rendered
+   *        on the calling thread.
+   * @param cacheDir directory of previously rendered images, created if it does not exist. If
+   *        {@code null}, images are not cached.
+   */
+  public ImgGenerator(int parallelism, Path cacheDir) {
+    this.cacheDir = cacheDir;
+    this.executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+  }
+
+  /**
+   * Waits for all images to be written
+   *
+   * @throws IOException the first failure to write an image
+   */
+  @Override
+  public void close() throws IOException {
+    if (executor == null) {
+      return;
+    }
+    try {
+      final List<Future<Void>> futures;
+      synchronized (pending) {
+        futures = new ArrayList<>(pending);
+        pending.clear();
+      }
+      for (final Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while rendering images");
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Generates a state machine diagram
+   *
+   * @return path of the image, which may be written after this method returns
+   */
+  public Path generateUMLStateMachine(Path messagesImgPath, PathManager fileSystemManager, StateMachineType stateMachine,
       STErrorListener errorListener) throws IOException {
     final StringWriter stringWriter = new StringWriter();
     final NoIndentWriter writer = new NoIndentWriter(stringWriter);
@@ -51,16 +164,17 @@ public class ImgGenerator {
     stStates.add("stateMachine", stateMachine);
     stStates.write(writer, errorListener);
 
-    final String umlString = stringWriter.toString();
-
-    final SourceStringReader reader = new SourceStringReader(umlString);
     final Path path = messagesImgPath.resolve(String.format("%s.png", stateMachine.getName()));
-    final OutputStream out = fileSystemManager.getOutputStream(path);
-    reader.generateImage(out);
-    out.flush();
+    submit(stringWriter.toString(), path, fileSystemManager);
+    return path;
   }
 
-  public void generateUMLSequence(Path messagesImgPath, PathManager fileSystemManager, MessageType message, FlowType flow,
+  /**
+   * Generates a sequence diagram of the responses to a message
+   *
+   * @return path of the image, which may be written after this method returns
+   */
+  public Path generateUMLSequence(Path messagesImgPath, PathManager fileSystemManager, MessageType message, FlowType flow,
       List<ResponseType> responseList, STErrorListener errorListener) throws IOException {
     final StringWriter stringWriter = new StringWriter();
     final NoIndentWriter writer = new NoIndentWriter(stringWriter);
@@ -74,17 +188,32 @@ public class ImgGenerator {
     stEnd.add("message", message);
     stEnd.write(writer, errorListener);
 
-    final String umlString = stringWriter.toString();
-
-    final SourceStringReader reader = new SourceStringReader(umlString);
     final Path path = messagesImgPath.resolve(String.format("%s-%s.png", message.getName(), message.getScenario()));
-    final OutputStream out = fileSystemManager.getOutputStream(path);
-    reader.generateImage(out);
-    out.flush();
+    submit(stringWriter.toString(), path, fileSystemManager);
+    return path;
+  }
+
+  private static String cacheKey(String umlString) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+    digest.update(Version.versionString().getBytes(StandardCharsets.UTF_8));
+    digest.update(GraphvizVersion.value.getBytes(StandardCharsets.UTF_8));
+    final byte[] hash = digest.digest(umlString.getBytes(StandardCharsets.UTF_8));
+    final StringBuilder sb = new StringBuilder(hash.length * 2);
+    for (final byte b : hash) {
+      sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return sb.toString();
   }
 
   private void generateResponses(List<ResponseType> responseList, STWriter writer,
       STErrorListener errorListener) {
+    final ST st = stGroup.getInstanceOf("messageResponse");
     for (int i = 0; i < responseList.size(); i++) {
       final ResponseType response = responseList.get(i);
       final List<Object> responses = response.getMessageRefOrAssignOrTrigger();
@@ -92,7 +221,10 @@ public class ImgGenerator {
         final Object responseRef = responses.get(j);
         if (responseRef instanceof MessageRefType) {
           final MessageRefType messageRef = (MessageRefType) responseRef;
-          final ST st = stGroup.getInstanceOf("messageResponse");
+          // the template instance is reused for each response, replacing its attributes
+          for (final String attribute : RESPONSE_ATTRIBUTES) {
+            st.remove(attribute);
+          }
           st.add("messageName", messageRef.getName());
           st.add("scenarioName", messageRef.getScenario());
           st.add("async", response.getSync() == Synchronization.ASYNCHRONOUS);
@@ -104,4 +236,65 @@ public class ImgGenerator {
       }
     }
   }
+
+  private void render(String umlString, Path path, PathManager fileSystemManager)
+      throws IOException {
+    if (cacheDir == null) {
+      try (final OutputStream out = fileSystemManager.getOutputStream(path)) {
+        new SourceStringReader(umlString).generateImage(out);
+      }
+      return;
+    }
+
+    final Path cachePath = cacheDir.resolve(cacheKey(umlString) + ".png");
+    if (Files.isRegularFile(cachePath)) {
+      try (final OutputStream out = fileSystemManager.getOutputStream(path)) {
+        Files.copy(cachePath, out);
+      }
+      return;
+    }
+
+    final ByteArrayOutputStream image = new ByteArrayOutputStream();
+    final String description = new SourceStringReader(umlString).generateImage(image);
+    try (final OutputStream out = fileSystemManager.getOutputStream(path)) {
+      image.writeTo(out);
+    }
+    // an image of a syntax error is not retained
+    if (description != null && !ERROR_DESCRIPTION.equals(description)) {
+      store(cachePath, image);
+    }
+  }
+
+  // Written to a temporary file and then moved so that a concurrent build never reads a partial image
+  private void store(Path cachePath, ByteArrayOutputStream image) throws IOException {
+    Files.createDirectories(cacheDir);
+    final Path tempPath = Files.createTempFile(cacheDir, cachePath.getFileName().toString(), ".tmp");
+    try {
+      try (final OutputStream out = Files.newOutputStream(tempPath)) {
+        image.writeTo(out);
+      }
+      try {
+        Files.move(tempPath, cachePath, StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+
+  private void submit(String umlString, Path path, PathManager fileSystemManager)
+      throws IOException {
+    if (executor == null) {
+      render(umlString, path, fileSystemManager);
+    } else {
+      final Future<Void> future = executor.submit(() -> {
+        render(umlString, path, fileSystemManager);
+        return null;
+      });
+      synchronized (pending) {
+        pending.add(future);
+      }
+    }
+  }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.docgen;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Record of the pages generated from an Orchestra file
+ *
+ * <p>
+ * Each page is identified by name and keyed by a hash of the elements that it was rendered from.
+ * The files written for a page are listed so that they can be reused while the key is unchanged,
+ * and deleted when the page no longer exists.
+ * </p>
+ * <p>
+ * The manifest is stored as text, one page per line, with tab-separated page name, key and file
+ * paths relative to the root of the documentation.
+ * </p>
+ */
+class Manifest {
+
+  static final String FILE_NAME = ".docgen-manifest";
+
+  private static final class Entry {
+    final List<String> files;
+    final String key;
+
+    Entry(String key, List<String> files) {
+      this.key = key;
+      this.files = files;
+    }
+  }
+
+  /**
+   * Reads a manifest
+   *
+   * @param path manifest file
+   * @return the manifest, or an empty manifest if the file does not exist
+   * @throws IOException if the file cannot be read
+   */
+  static Manifest load(Path path) throws IOException {
+    final Manifest manifest = new Manifest();
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final String[] fields = line.split("\t");
+        if (fields.length >= 2) {
+          manifest.entries.put(fields[0],
+              new Entry(fields[1], Arrays.asList(Arrays.copyOfRange(fields, 2, fields.length))));
+        }
+      }
+    } catch (final NoSuchFileException e) {
+      // first generation to this directory
+    }
+    return manifest;
+  }
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Carries forward the entry of a page that was not rendered again
+   *
+   * @param previous manifest of the previous generation
+   * @param page page name
+   */
+  void copy(Manifest previous, String page) {
+    final Entry entry = previous.entries.get(page);
+    if (entry != null) {
+      entries.put(page, entry);
+    }
+  }
+
+  /**
+   * @return paths of all files listed, relative to the root of the documentation
+   */
+  Set<String> files() {
+    final Set<String> files = new HashSet<>();
+    entries.values().forEach(e -> files.addAll(e.files));
+    return files;
+  }
+
+  /**
+   * Tells whether a page may be reused
+   *
+   * @param page page name
+   * @param key hash of the elements that the page is rendered from
+   * @param rootPath root of the documentation
+   * @return {@code true} if the page was generated with the same key and all of its files exist
+   */
+  boolean isCurrent(String page, String key, Path rootPath) {
+    final Entry entry = entries.get(page);
+    return entry != null && entry.key.equals(key)
+        && entry.files.stream().allMatch(f -> Files.isRegularFile(rootPath.resolve(f)));
+  }
+
+  /**
+   * Records a page that was rendered
+   *
+   * @param page page name
+   * @param key hash of the elements that the page was rendered from
+   * @param files paths of the files written, relative to the root of the documentation
+   */
+  void put(String page, String key, List<String> files) {
+    entries.put(page, new Entry(key, files));
+  }
+
+  /**
+   * Writes this manifest, ordered by page name
+   *
+   * @param path manifest file
+   * @throws IOException if the file cannot be written
+   */
+  void save(Path path) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      for (final Map.Entry<String, Entry> e : new TreeMap<>(entries).entrySet()) {
+        writer.write(e.getKey());
+        writer.write('\t');
+        writer.write(e.getValue().key);
+        for (final String file : e.getValue().files) {
+          writer.write('\t');
+          writer.write(file);
+        }
+        writer.newLine();
+      }
+    }
+  }
+}
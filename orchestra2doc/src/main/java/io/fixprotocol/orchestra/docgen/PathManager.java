@@ -23,6 +23,11 @@ import java.nio.file.Path;
 
 /**
  * Abstracts file systems
+ *
+ * <p>
+ * Implementations may be used by concurrent threads. A file is complete only when the stream or
+ * writer obtained for it is closed.
+ * </p>
  * 
  * @author Don Mendelson
  *
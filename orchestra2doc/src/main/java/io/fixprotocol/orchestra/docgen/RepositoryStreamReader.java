@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.docgen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.JAXBIntrospector;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+import io.fixprotocol._2024.orchestra.repository.CodeSetType;
+import io.fixprotocol._2024.orchestra.repository.ComponentType;
+import io.fixprotocol._2024.orchestra.repository.GroupType;
+import io.fixprotocol._2024.orchestra.repository.MessageType;
+import io.fixprotocol._2024.orchestra.repository.Repository;
+import io.fixprotocol.orchestra.repository.jaxb.RepositoryJAXBContext;
+
+/**
+ * Reads an Orchestra file in two passes without holding all of its elements in memory
+ *
+ * <p>
+ * The first pass reads an index of the repository: every element except the codes of code sets,
+ * the members of components and groups, and the structure and responses of messages. The index
+ * holds what list pages and member rows need, such as identifiers, names and documentation.
+ * </p>
+ * <p>
+ * The second pass streams the code sets, components, groups and messages, each unmarshalled in
+ * full, one at a time, in document order.
+ * </p>
+ */
+class RepositoryStreamReader {
+
+  /**
+   * Receives an element of the second pass
+   */
+  @FunctionalInterface
+  interface ElementVisitor {
+    void visit(Object element) throws Exception;
+  }
+
+  /**
+   * Skips the content that is left out of the index. Elements are identified by their path from
+   * the root, since components and field references are also nested in actors.
+   */
+  private static final class IndexReader extends StreamReaderDelegate {
+    private final Deque<String> path = new ArrayDeque<>();
+
+    IndexReader(XMLStreamReader reader) {
+      super(reader);
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+      int event = super.next();
+      while (event == START_ELEMENT && isSkipped()) {
+        skipElement();
+        event = super.next();
+      }
+      if (event == START_ELEMENT) {
+        path.push(getLocalName());
+      } else if (event == END_ELEMENT) {
+        path.pop();
+      }
+      return event;
+    }
+
+    @Override
+    public int nextTag() throws XMLStreamException {
+      int event = next();
+      while (event == CHARACTERS && isWhiteSpace() || event == SPACE || event == COMMENT
+          || event == PROCESSING_INSTRUCTION) {
+        event = next();
+      }
+      if (event != START_ELEMENT && event != END_ELEMENT) {
+        throw new XMLStreamException("Expected start or end tag", getLocation());
+      }
+      return event;
+    }
+
+    private boolean isSkipped() {
+      // path holds the ancestors of the current element; repository/section/element/child
+      if (path.size() != 3) {
+        return false;
+      }
+      final Set<String> children = skippedChildren.get(path.peek());
+      return children != null && children.contains(getLocalName());
+    }
+
+    private void skipElement() throws XMLStreamException {
+      int depth = 1;
+      while (depth > 0) {
+        final int event = super.next();
+        if (event == START_ELEMENT) {
+          depth++;
+        } else if (event == END_ELEMENT) {
+          depth--;
+        }
+      }
+    }
+  }
+
+  // second level sections that are streamed, and the type of their elements
+  private static final Map<String, Class<?>> streamedTypes = new HashMap<>();
+  // children of streamed elements that are left out of the index
+  private static final Map<String, Set<String>> skippedChildren = new HashMap<>();
+
+  static {
+    streamedTypes.put("codeSets", CodeSetType.class);
+    streamedTypes.put("components", ComponentType.class);
+    streamedTypes.put("groups", GroupType.class);
+    streamedTypes.put("messages", MessageType.class);
+
+    final Set<String> members = Set.of("componentRef", "fieldRef", "groupRef");
+    skippedChildren.put("codeSet", Set.of("code"));
+    skippedChildren.put("component", members);
+    skippedChildren.put("group", members);
+    skippedChildren.put("message", Set.of("responses", "structure"));
+  }
+
+  private static XMLInputFactory newInputFactory() {
+    final XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
+  private final ValidationEventHandler eventHandler;
+  private final XMLInputFactory inputFactory = newInputFactory();
+  private final Path path;
+
+  /**
+   * @param path Orchestra file, read once by each pass
+   * @param eventHandler receives errors while unmarshalling
+   */
+  RepositoryStreamReader(Path path, ValidationEventHandler eventHandler) {
+    this.path = path;
+    this.eventHandler = eventHandler;
+  }
+
+  /**
+   * First pass
+   *
+   * @return a repository without the content of elements that are streamed by
+   *         {@link #readElements(ElementVisitor)}
+   * @throws IOException if the file cannot be read
+   * @throws JAXBException if the file cannot be unmarshalled
+   * @throws XMLStreamException if the file is not well-formed
+   */
+  Repository readIndex() throws IOException, JAXBException, XMLStreamException {
+    final Unmarshaller unmarshaller = RepositoryJAXBContext.borrowUnmarshaller();
+    try (InputStream in = Files.newInputStream(path)) {
+      unmarshaller.setEventHandler(eventHandler);
+      final XMLStreamReader reader = new IndexReader(inputFactory.createXMLStreamReader(in));
+      try {
+        return (Repository) JAXBIntrospector.getValue(unmarshaller.unmarshal(reader));
+      } finally {
+        reader.close();
+      }
+    } finally {
+      RepositoryJAXBContext.returnUnmarshaller(unmarshaller);
+    }
+  }
+
+  /**
+   * Second pass
+   *
+   * @param visitor receives each code set, component, group and message in document order. The
+   *        reader keeps no reference to an element after it is visited.
+   * @throws Exception if the file cannot be read or unmarshalled, or the visitor fails
+   */
+  void readElements(ElementVisitor visitor) throws Exception {
+    final Unmarshaller unmarshaller = RepositoryJAXBContext.borrowUnmarshaller();
+    try (InputStream in = Files.newInputStream(path)) {
+      unmarshaller.setEventHandler(eventHandler);
+      final XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+      try {
+        int depth = 0;
+        Class<?> type = null;
+        int event = reader.getEventType();
+        while (event != XMLStreamConstants.END_DOCUMENT) {
+          if (event == XMLStreamConstants.START_ELEMENT) {
+            if (depth == 2 && type != null) {
+              // leaves the reader at the event that follows the element
+              visitor.visit(unmarshaller.unmarshal(reader, type).getValue());
+              event = reader.getEventType();
+              continue;
+            }
+            depth++;
+            if (depth == 2) {
+              type = streamedTypes.get(reader.getLocalName());
+            }
+          } else if (event == XMLStreamConstants.END_ELEMENT) {
+            depth--;
+          }
+          event = reader.next();
+        }
+      } finally {
+        reader.close();
+      }
+    } finally {
+      RepositoryJAXBContext.returnUnmarshaller(unmarshaller);
+    }
+  }
+}
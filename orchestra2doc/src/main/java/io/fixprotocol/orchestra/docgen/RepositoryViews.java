@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.docgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.fixprotocol._2024.orchestra.repository.ActorType;
+import io.fixprotocol._2024.orchestra.repository.CatComponentTypeT;
+import io.fixprotocol._2024.orchestra.repository.CategoryType;
+import io.fixprotocol._2024.orchestra.repository.CodeSetType;
+import io.fixprotocol._2024.orchestra.repository.ComponentType;
+import io.fixprotocol._2024.orchestra.repository.FieldType;
+import io.fixprotocol._2024.orchestra.repository.FlowType;
+import io.fixprotocol._2024.orchestra.repository.GroupType;
+import io.fixprotocol._2024.orchestra.repository.MessageType;
+import io.fixprotocol._2024.orchestra.repository.Repository;
+
+/**
+ * Sorted, read-only views of a repository for list pages
+ *
+ * <p>
+ * Each list is sorted once, and messages are grouped by category and by flow in a single pass, so a
+ * list page neither sorts nor filters the repository itself. The views are not modified after
+ * construction, so they may be read concurrently.
+ * </p>
+ */
+class RepositoryViews {
+
+  // message categories by section, then by name
+  private static final Comparator<CategoryType> categoryOrder = Comparator
+      .comparing((CategoryType c) -> c.getSection() != null ? c.getSection() : "")
+      .thenComparing(CategoryType::getName);
+  private static final Comparator<CodeSetType> codeSetOrder =
+      Comparator.comparing(CodeSetType::getName);
+  private static final Comparator<ComponentType> componentOrder =
+      Comparator.comparing(ComponentType::getName).thenComparing(ComponentType::getScenario);
+  private static final Comparator<FieldType> fieldOrder = Comparator.comparing(FieldType::getName);
+  private static final Comparator<GroupType> groupOrder =
+      Comparator.comparing(GroupType::getName).thenComparing(GroupType::getScenario);
+  private static final Comparator<MessageType> messageOrder =
+      Comparator.comparing(MessageType::getName).thenComparing(MessageType::getScenario);
+
+  private static <T> List<T> sorted(List<T> list, Comparator<? super T> order) {
+    final List<T> sorted = new ArrayList<>(list);
+    sorted.sort(order);
+    return Collections.unmodifiableList(sorted);
+  }
+
+  private static Map<String, List<MessageType>> unmodifiable(
+      Map<String, List<MessageType>> buckets) {
+    buckets.replaceAll((k, v) -> Collections.unmodifiableList(v));
+    return Collections.unmodifiableMap(buckets);
+  }
+
+  private final List<ActorType> actors;
+  private final List<CodeSetType> codeSets;
+  private final List<ComponentType> components;
+  private final List<FieldType> fields;
+  private final List<FlowType> flows;
+  private final List<GroupType> groups;
+  private final List<CategoryType> messageCategories;
+  private final List<MessageType> messages;
+  private final Map<String, List<MessageType>> messagesByCategory;
+  private final Map<String, List<MessageType>> messagesByFlow;
+
+  RepositoryViews(Repository repository) {
+    final List<ActorType> actors = new ArrayList<>();
+    final List<FlowType> flows = new ArrayList<>();
+    if (repository.getActors() != null) {
+      for (final Object obj : repository.getActors().getActorOrFlow()) {
+        if (obj instanceof ActorType) {
+          actors.add((ActorType) obj);
+        } else if (obj instanceof FlowType) {
+          flows.add((FlowType) obj);
+        }
+      }
+    }
+    this.actors = Collections.unmodifiableList(actors);
+    this.flows = Collections.unmodifiableList(flows);
+
+    final List<CategoryType> messageCategories = new ArrayList<>();
+    if (repository.getCategories() != null) {
+      for (final CategoryType category : repository.getCategories().getCategory()) {
+        if (category.getComponentType() == CatComponentTypeT.MESSAGE) {
+          messageCategories.add(category);
+        }
+      }
+    }
+    this.messageCategories = sorted(messageCategories, categoryOrder);
+
+    this.codeSets = sorted(repository.getCodeSets().getCodeSet(), codeSetOrder);
+    this.components = sorted(repository.getComponents().getComponent(), componentOrder);
+    this.fields = sorted(repository.getFields().getField(), fieldOrder);
+    this.groups = sorted(repository.getGroups().getGroup(), groupOrder);
+    this.messages = sorted(repository.getMessages().getMessage(), messageOrder);
+
+    // buckets are filled in message order, so each is sorted
+    final Map<String, List<MessageType>> messagesByCategory = new HashMap<>();
+    final Map<String, List<MessageType>> messagesByFlow = new HashMap<>();
+    for (final MessageType message : messages) {
+      if (message.getCategory() != null) {
+        messagesByCategory.computeIfAbsent(message.getCategory(), k -> new ArrayList<>())
+            .add(message);
+      }
+      if (message.getFlow() != null) {
+        messagesByFlow.computeIfAbsent(message.getFlow(), k -> new ArrayList<>()).add(message);
+      }
+    }
+    this.messagesByCategory = unmodifiable(messagesByCategory);
+    this.messagesByFlow = unmodifiable(messagesByFlow);
+  }
+
+  /**
+   * @return actors in document order
+   */
+  List<ActorType> getActors() {
+    return actors;
+  }
+
+  /**
+   * @return code sets by name
+   */
+  List<CodeSetType> getCodeSets() {
+    return codeSets;
+  }
+
+  /**
+   * @return components by name and scenario
+   */
+  List<ComponentType> getComponents() {
+    return components;
+  }
+
+  /**
+   * @return fields by name
+   */
+  List<FieldType> getFields() {
+    return fields;
+  }
+
+  /**
+   * @return flows in document order
+   */
+  List<FlowType> getFlows() {
+    return flows;
+  }
+
+  /**
+   * @return groups by name and scenario
+   */
+  List<GroupType> getGroups() {
+    return groups;
+  }
+
+  /**
+   * @return categories of messages by section and name
+   */
+  List<CategoryType> getMessageCategories() {
+    return messageCategories;
+  }
+
+  /**
+   * @return messages by name and scenario
+   */
+  List<MessageType> getMessages() {
+    return messages;
+  }
+
+  /**
+   * @param category category name
+   * @return messages of a category by name and scenario
+   */
+  List<MessageType> getMessagesByCategory(String category) {
+    return messagesByCategory.getOrDefault(category, Collections.emptyList());
+  }
+
+  /**
+   * @param flow flow name
+   * @return messages of a flow by name and scenario
+   */
+  List<MessageType> getMessagesByFlow(String flow) {
+    return messagesByFlow.getOrDefault(flow, Collections.emptyList());
+  }
+}
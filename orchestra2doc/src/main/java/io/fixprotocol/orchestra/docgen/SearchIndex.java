@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.docgen;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import io.fixprotocol._2024.orchestra.repository.CodeSetType;
+import io.fixprotocol._2024.orchestra.repository.CodeType;
+import io.fixprotocol._2024.orchestra.repository.ComponentType;
+import io.fixprotocol._2024.orchestra.repository.FieldType;
+import io.fixprotocol._2024.orchestra.repository.GroupType;
+import io.fixprotocol._2024.orchestra.repository.MessageType;
+
+/**
+ * Index for searching fields, codes, messages, components and groups by name, tag, code value or
+ * message type
+ *
+ * <p>
+ * Search terms are lower case, and sharded by their first character so that a page loads only the
+ * shard of a query. Entries of a shard are sorted by term so that entries that start with a query
+ * are found by binary search. Each shard is written as a script that passes its entries to the
+ * function {@code searchShard}, since a browser does not let a page read a JSON file from a local
+ * file system.
+ * </p>
+ * <p>
+ * An instance is not thread-safe. Entries are added while pages are planned, and the shards are
+ * written after all pages are planned.
+ * </p>
+ */
+class SearchIndex {
+
+  private static final class Entry {
+    final String href;
+    final String kind;
+    final String label;
+    final String term;
+
+    Entry(String term, String label, String href, String kind) {
+      this.term = term;
+      this.label = label;
+      this.href = href;
+      this.kind = kind;
+    }
+  }
+
+  private static final Comparator<Entry> entryOrder = Comparator.comparing((Entry e) -> e.term)
+      .thenComparing(e -> e.label).thenComparing(e -> e.href).thenComparing(e -> e.kind);
+
+  private static void appendString(StringBuilder sb, String value) {
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+        // not allowed unescaped in a script string
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+
+  /**
+   * @return name of the shard of a term; a letter or digit, or {@code _} for any other character
+   */
+  static String shardName(String term) {
+    final char c = term.charAt(0);
+    return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') ? String.valueOf(c) : "_";
+  }
+
+  private final Map<String, NavigableSet<Entry>> shards = new TreeMap<>();
+
+  void addCodeSet(CodeSetType codeSet) {
+    final String href =
+        String.format("datatypes/%s-%s.html", codeSet.getName(), codeSet.getScenario());
+    for (final CodeType code : codeSet.getCode()) {
+      final String label = String.format("%s = %s (%s-%s)", code.getName(), code.getValue(),
+          codeSet.getName(), codeSet.getScenario());
+      add(code.getName(), label, href, "code");
+      add(code.getValue(), label, href, "code");
+    }
+  }
+
+  void addComponent(ComponentType component) {
+    final String label =
+        String.format("%s-%s (%s)", component.getName(), component.getScenario(), component.getId());
+    final String href =
+        String.format("messages/%s-%s.html", component.getName(), component.getScenario());
+    add(component.getName(), label, href, "component");
+  }
+
+  void addField(FieldType field) {
+    final String label =
+        String.format("%s-%s (%s)", field.getName(), field.getScenario(), field.getId());
+    final String href = String.format("fields/%s-%s.html", field.getName(), field.getScenario());
+    add(field.getName(), label, href, "field");
+    add(field.getId().toString(), label, href, "field");
+  }
+
+  void addGroup(GroupType group) {
+    final String label =
+        String.format("%s-%s (%s)", group.getName(), group.getScenario(), group.getId());
+    final String href = String.format("messages/%s-%s.html", group.getName(), group.getScenario());
+    add(group.getName(), label, href, "group");
+  }
+
+  void addMessage(MessageType message) {
+    final String label = message.getMsgType() != null
+        ? String.format("%s-%s (%s)", message.getName(), message.getScenario(),
+            message.getMsgType())
+        : String.format("%s-%s", message.getName(), message.getScenario());
+    final String href =
+        String.format("messages/%s-%s.html", message.getName(), message.getScenario());
+    add(message.getName(), label, href, "message");
+    if (message.getMsgType() != null) {
+      add(message.getMsgType(), label, href, "message");
+    }
+  }
+
+  /**
+   * @return the script of each shard by shard name. A shard is an array of entries, each an array
+   *         of term, label, link relative to the root of the documentation, and kind.
+   */
+  Map<String, String> scripts() {
+    final Map<String, String> scripts = new TreeMap<>();
+    for (final Map.Entry<String, NavigableSet<Entry>> shard : shards.entrySet()) {
+      final StringBuilder sb = new StringBuilder();
+      sb.append("searchShard(");
+      appendString(sb, shard.getKey());
+      sb.append(",[\n");
+      boolean first = true;
+      for (final Entry entry : shard.getValue()) {
+        if (!first) {
+          sb.append(",\n");
+        }
+        first = false;
+        sb.append('[');
+        appendString(sb, entry.term);
+        sb.append(',');
+        appendString(sb, entry.label);
+        sb.append(',');
+        appendString(sb, entry.href);
+        sb.append(',');
+        appendString(sb, entry.kind);
+        sb.append(']');
+      }
+      sb.append("\n]);\n");
+      scripts.put(shard.getKey(), sb.toString());
+    }
+    return scripts;
+  }
+
+  private void add(String term, String label, String href, String kind) {
+    if (term == null || term.isEmpty()) {
+      return;
+    }
+    final String key = term.toLowerCase(Locale.ROOT);
+    shards.computeIfAbsent(shardName(key), k -> new TreeSet<>(entryOrder))
+        .add(new Entry(key, label, href, kind));
+  }
+}
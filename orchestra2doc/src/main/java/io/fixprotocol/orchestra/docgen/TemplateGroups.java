@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.docgen;
+
+import org.stringtemplate.v4.STGroupFile;
+
+/**
+ * Loads the StringTemplate groups that are shared by pages and diagrams rendered concurrently
+ *
+ * <p>
+ * A group is loaded completely before it is shared, so renderers only read it. ST4 4.3.1 would
+ * otherwise load a group file on first lookup; that is safe only because
+ * {@code STGroupFile.load()} is synchronized there, which is not part of its documented contract.
+ * Once loaded, {@code getInstanceOf} reads templates from a synchronized map and returns a new
+ * {@code ST} on each call, which belongs to the calling thread.
+ * </p>
+ */
+final class TemplateGroups {
+
+  /**
+   * @param fileName template group resource with {@code $} delimiters
+   * @return a loaded group
+   */
+  static STGroupFile load(String fileName) {
+    final STGroupFile group = new STGroupFile(fileName, '$', '$');
+    group.load();
+    return group;
+  }
+
+  private TemplateGroups() {
+
+  }
+}
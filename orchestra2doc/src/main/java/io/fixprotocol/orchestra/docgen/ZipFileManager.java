@@ -15,61 +15,152 @@
 
 package io.fixprotocol.orchestra.docgen;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.ZipException;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 
 
 /**
  * Abstracts differences between default FileSystem and Zip file
+ *
+ * <p>
+ * Entries may be written concurrently. The content of each entry is held in memory until its
+ * stream or writer is closed. It is then compressed by the closing thread and spooled to a
+ * temporary file, so only the spooling is serialized. Images that are already compressed are
+ * stored.
+ * </p>
+ * <p>
+ * When the archive is closed, the spooled entries are appended in order of name. Thus the order of
+ * entries does not depend on the order in which concurrent writers were closed. An entry name may
+ * be written only once; closing a second stream or writer for it throws a {@link ZipException}.
+ * </p>
  * 
  * @author Don Mendelson
  */
 class ZipFileManager implements PathManager {
 
-  private static final String TEMP_PREFIX = "temp";
-  private static final String ZIP_EXTENSION = ".zip";
+  /**
+   * Buffers the content of an entry and writes it to the archive when closed
+   */
+  private class EntryOutputStream extends ByteArrayOutputStream {
+    private boolean isClosed = false;
+    private final ZipPath path;
+
+    EntryOutputStream(ZipPath path) {
+      super(8192);
+      this.path = path;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!isClosed) {
+        isClosed = true;
+        writeEntry(path, buf, count);
+      }
+    }
+  }
 
-  private static long copyStreamToStream(InputStream source, OutputStream sink) throws IOException {
-    long nread = 0L;
-    final byte[] buf = new byte[8192];
-    int n;
-    while ((n = source.read(buf)) > 0) {
-      sink.write(buf, 0, n);
-      nread += n;
+  /**
+   * Location of a compressed entry in the spool file
+   */
+  private static final class SpooledEntry {
+    final ZipArchiveEntry entry;
+    final int length;
+    final long position;
+
+    SpooledEntry(ZipArchiveEntry entry, long position, int length) {
+      this.entry = entry;
+      this.position = position;
+      this.length = length;
     }
-    return nread;
   }
 
-  private ZipOutputStream zipOutputStream;
-  private OutputStreamWriter zipWriter;
+  private static final Set<String> COMPRESSED_EXTENSIONS = Set.of("gif", "jpeg", "jpg", "png");
+  private static final String TEMP_PREFIX = "temp";
+  private static final String ZIP_EXTENSION = ".zip";
+
+  private final int compressionLevel;
+  // entries by name, appended to the archive in that order when it is closed
+  private final Map<String, SpooledEntry> spooledEntries = new TreeMap<>();
+  private FileChannel spool;
+  private long spoolSize = 0;
+  private ZipArchiveOutputStream zipOutputStream;
+
+  /**
+   * Constructs a ZipFileManager with default compression
+   */
+  ZipFileManager() {
+    this(Deflater.DEFAULT_COMPRESSION);
+  }
 
+  /**
+   * Constructs a ZipFileManager
+   *
+   * @param compressionLevel compression level of entries, 0-9, or
+   *        {@link Deflater#DEFAULT_COMPRESSION}. If 0, all entries are stored.
+   */
+  ZipFileManager(int compressionLevel) {
+    if (compressionLevel < Deflater.DEFAULT_COMPRESSION
+        || compressionLevel > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid compression level " + compressionLevel);
+    }
+    this.compressionLevel = compressionLevel;
+  }
 
   @Override
-  public void close() throws Exception {
-    this.zipOutputStream.close();
+  public synchronized void close() throws Exception {
+    try (ZipArchiveOutputStream out = this.zipOutputStream; FileChannel in = this.spool) {
+      for (final SpooledEntry spooled : spooledEntries.values()) {
+        final ByteBuffer buffer = ByteBuffer.allocate(spooled.length);
+        while (buffer.hasRemaining()) {
+          if (in.read(buffer, spooled.position + buffer.position()) < 0) {
+            throw new EOFException("Spooled zip entry truncated; " + spooled.entry.getName());
+          }
+        }
+        out.addRawArchiveEntry(spooled.entry,
+            new ByteArrayInputStream(buffer.array(), 0, spooled.length));
+      }
+    } finally {
+      spooledEntries.clear();
+    }
   }
 
   public long copyStreamToPath(InputStream in, Path path) throws IOException {
-    this.zipOutputStream.putNextEntry(createZipEntry((ZipPath) path));
-    return copyStreamToStream(in, this.zipOutputStream);
+    try (final EntryOutputStream out = new EntryOutputStream((ZipPath) path)) {
+      in.transferTo(out);
+      return out.size();
+    }
   }
 
   public OutputStream getOutputStream(Path path) throws IOException {
-    this.zipOutputStream.putNextEntry(createZipEntry((ZipPath) path));
-    return this.zipOutputStream;
+    return new EntryOutputStream((ZipPath) path);
   }
 
   public Writer getWriter(Path path) throws IOException {
-    this.zipOutputStream.putNextEntry(createZipEntry((ZipPath) path));
-    return this.zipWriter;
+    return new OutputStreamWriter(new EntryOutputStream((ZipPath) path), StandardCharsets.UTF_8);
   }
 
   @Override
@@ -88,13 +179,15 @@ class ZipFileManager implements PathManager {
     return ZipPath.ROOT;
   }
 
-  private ZipEntry createZipEntry(ZipPath path) {
+  private ZipArchiveEntry createZipEntry(ZipPath path) {
     // strip off leading '/' if present since its not shown in Zip files, unlike other file systems
     String name = path.toString();
     if (name.startsWith("/")) {
       name = name.substring(1);
     }
-    return new ZipEntry(name);
+    final ZipArchiveEntry entry = new ZipArchiveEntry(name);
+    entry.setTime(System.currentTimeMillis());
+    return entry;
   }
 
   private File createZipFile(String path) throws IOException {
@@ -104,8 +197,60 @@ class ZipFileManager implements PathManager {
     } else {
       file = new File(path);
     }
-    this.zipOutputStream = new ZipOutputStream(new FileOutputStream(file));
-    this.zipWriter = new OutputStreamWriter(this.zipOutputStream);
+    this.zipOutputStream = new ZipArchiveOutputStream(file);
+    this.spool = FileChannel.open(Files.createTempFile(TEMP_PREFIX, ".spool"),
+        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
     return file;
   }
+
+  private boolean isCompressed(ZipPath path) {
+    final String name = path.toString();
+    final int dot = name.lastIndexOf('.');
+    return dot >= 0
+        && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+  }
+
+  private void writeEntry(ZipPath path, byte[] content, int length) throws IOException {
+    final ZipArchiveEntry entry = createZipEntry(path);
+    final CRC32 crc = new CRC32();
+    crc.update(content, 0, length);
+    entry.setCrc(crc.getValue());
+    entry.setSize(length);
+
+    final ByteBuffer rawContent;
+    if (compressionLevel == Deflater.NO_COMPRESSION || isCompressed(path)) {
+      entry.setMethod(ZipEntry.STORED);
+      entry.setCompressedSize(length);
+      rawContent = ByteBuffer.wrap(content, 0, length);
+    } else {
+      // raw deflate without zlib header, as in a zip entry
+      final Deflater deflater = new Deflater(compressionLevel, true);
+      final ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+      try {
+        deflater.setInput(content, 0, length);
+        deflater.finish();
+        final byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+          compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+      } finally {
+        deflater.end();
+      }
+      entry.setMethod(ZipEntry.DEFLATED);
+      entry.setCompressedSize(compressed.size());
+      rawContent = ByteBuffer.wrap(compressed.toByteArray());
+    }
+
+    synchronized (this) {
+      // as ZipOutputStream does; otherwise the surviving content would depend on thread timing
+      if (spooledEntries.containsKey(entry.getName())) {
+        throw new ZipException("duplicate entry: " + entry.getName());
+      }
+      final SpooledEntry spooled = new SpooledEntry(entry, spoolSize, rawContent.remaining());
+      while (rawContent.hasRemaining()) {
+        spoolSize += this.spool.write(rawContent, spoolSize);
+      }
+      spooledEntries.put(entry.getName(), spooled);
+    }
+  }
 }
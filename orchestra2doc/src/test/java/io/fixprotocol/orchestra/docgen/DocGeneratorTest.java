@@ -15,9 +15,30 @@
 
 package io.fixprotocol.orchestra.docgen;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -46,4 +67,166 @@ public class DocGeneratorTest {
     generator.generate();
   }
 
+  @Test
+  public void generateParallel() throws Exception {
+    try (InputStream inputStream = new FileInputStream("src/test/resources/docgen-sample.xml")) {
+      DocGenerator.builder().inputStream(inputStream).outputRootDir("target/test/sample-doc")
+          .errorStream(new PrintStream("target/test/sample-doc-err.txt")).parallelism(1).build()
+          .generate();
+    }
+    try (InputStream inputStream = new FileInputStream("src/test/resources/docgen-sample.xml")) {
+      DocGenerator.builder().inputStream(inputStream).outputRootDir("target/test/sample-doc.zip")
+          .errorStream(new PrintStream("target/test/sample-zip-err.txt")).parallelism(4).build()
+          .generate();
+    }
+
+    final Path root = Paths.get("target/test/sample-doc");
+    final Map<String, byte[]> files = new HashMap<>();
+    try (Stream<Path> paths = Files.walk(root)) {
+      for (final Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+        files.put(root.relativize(path).toString().replace('\\', '/'), Files.readAllBytes(path));
+      }
+    }
+    try (ZipFile zipFile = new ZipFile("target/test/sample-doc.zip")) {
+      assertEquals(files.size(), zipFile.size());
+      // entries are in order of name regardless of the order in which pages were rendered
+      final List<String> names = Collections.list(zipFile.entries()).stream()
+          .map(ZipEntry::getName).collect(Collectors.toList());
+      assertEquals(names.stream().sorted().collect(Collectors.toList()), names);
+      for (final ZipEntry entry : Collections.list(zipFile.entries())) {
+        final byte[] expected = files.get(entry.getName());
+        assertNotNull(expected, entry.getName());
+        if (entry.getName().endsWith(".html")) {
+          try (InputStream in = zipFile.getInputStream(entry)) {
+            assertArrayEquals(expected, in.readAllBytes(), entry.getName());
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void generateWithImageCache() throws Exception {
+    final Path cacheDir = Paths.get("target/test/img-cache");
+    // images cached by an earlier build may have other keys
+    if (Files.isDirectory(cacheDir)) {
+      try (Stream<Path> cached = Files.list(cacheDir)) {
+        for (final Path path : cached.collect(Collectors.toList())) {
+          Files.delete(path);
+        }
+      }
+    }
+    for (final String outputRootDir : new String[] {"target/test/cached-doc1", "target/test/cached-doc2"}) {
+      try (InputStream inputStream = new FileInputStream("src/test/resources/docgen-sample.xml")) {
+        DocGenerator.builder().inputStream(inputStream).outputRootDir(outputRootDir)
+            .imageCacheDir(cacheDir.toString())
+            .errorStream(new PrintStream(outputRootDir + "-err.txt")).build().generate();
+      }
+    }
+
+    final Path imgDir1 = Paths.get("target/test/cached-doc1/messages/img");
+    final Path imgDir2 = Paths.get("target/test/cached-doc2/messages/img");
+    try (Stream<Path> cached = Files.list(cacheDir); Stream<Path> images = Files.list(imgDir1)) {
+      assertEquals(images.count(), cached.filter(p -> p.toString().endsWith(".png")).count());
+    }
+    try (Stream<Path> images = Files.list(imgDir1)) {
+      for (final Path image : images.collect(Collectors.toList())) {
+        assertArrayEquals(Files.readAllBytes(image),
+            Files.readAllBytes(imgDir2.resolve(image.getFileName())), image.toString());
+      }
+    }
+  }
+
+  @Test
+  public void generateIncremental() throws Exception {
+    final Path root = Paths.get("target/test/incremental-doc");
+    try (InputStream inputStream = new FileInputStream("src/test/resources/docgen-sample.xml")) {
+      DocGenerator.builder().inputStream(inputStream).outputRootDir(root.toString())
+          .incremental(true).errorStream(new PrintStream("target/test/incremental-err1.txt"))
+          .build().generate();
+    }
+    assertTrue(Files.isRegularFile(root.resolve(Manifest.FILE_NAME)));
+
+    // an unchanged page is not rendered again, but a missing one is
+    final Path index = root.resolve("index.html");
+    Files.write(index, "unchanged".getBytes(StandardCharsets.UTF_8));
+    final Path metadata = root.resolve("metadata.html");
+    Files.delete(metadata);
+
+    try (InputStream inputStream = new FileInputStream("src/test/resources/docgen-sample.xml")) {
+      DocGenerator.builder().inputStream(inputStream).outputRootDir(root.toString())
+          .incremental(true).errorStream(new PrintStream("target/test/incremental-err2.txt"))
+          .build().generate();
+    }
+    assertEquals("unchanged", new String(Files.readAllBytes(index), StandardCharsets.UTF_8));
+    assertTrue(Files.isRegularFile(metadata));
+
+    // a page that references a changed field is rendered again, and the page of a removed
+    // component is deleted
+    final String sample = new String(
+        Files.readAllBytes(Paths.get("src/test/resources/docgen-sample.xml")),
+        StandardCharsets.UTF_8);
+    final String changed = sample
+        .replace("Field number 21 documentation", "Field number 21 revised documentation")
+        .replaceAll("<fixr:component id=\"3003\".*?</fixr:component>", "")
+        .replace("<fixr:componentRef id=\"3003\"/>", "");
+    final Path referencing = root.resolve("messages/Comp0-base.html");
+    final Path removed = root.resolve("messages/Comp3-base.html");
+    final Path unrelated = root.resolve("messages/Comp1-base.html");
+    final FileTime past = FileTime.fromMillis(0L);
+    Files.setLastModifiedTime(referencing, past);
+    Files.setLastModifiedTime(unrelated, past);
+    assertTrue(Files.isRegularFile(removed));
+
+    try (InputStream inputStream =
+        new ByteArrayInputStream(changed.getBytes(StandardCharsets.UTF_8))) {
+      DocGenerator.builder().inputStream(inputStream).outputRootDir(root.toString())
+          .incremental(true).errorStream(new PrintStream("target/test/incremental-err3.txt"))
+          .build().generate();
+    }
+    assertNotEquals(past, Files.getLastModifiedTime(referencing));
+    assertFalse(Files.exists(removed));
+    assertEquals(past, Files.getLastModifiedTime(unrelated));
+  }
+
+  @Test
+  public void generateSearchIndex() throws Exception {
+    final Path root = Paths.get("target/test/search-doc");
+    DocGenerator.builder().inputFile("src/test/resources/docgen-sample.xml")
+        .outputRootDir(root.toString()).errorStream(new PrintStream("target/test/search-err.txt"))
+        .build().generate();
+
+    assertTrue(Files.isRegularFile(root.resolve("search.html")));
+    final String fields =
+        new String(Files.readAllBytes(root.resolve("search/f.js")), StandardCharsets.UTF_8);
+    assertTrue(fields.startsWith("searchShard(\"f\",["));
+    assertTrue(fields.contains("[\"field1\",\"Field1-base (1)\",\"fields/Field1-base.html\",\"field\"]"));
+    final String codes =
+        new String(Files.readAllBytes(root.resolve("search/c.js")), StandardCharsets.UTF_8);
+    assertTrue(codes.contains("[\"code0\","));
+  }
+
+  @Test
+  public void generateStreaming() throws Exception {
+    final Path expectedRoot = Paths.get("target/test/unstreamed-doc");
+    DocGenerator.builder().inputFile("src/test/resources/docgen-sample.xml")
+        .outputRootDir(expectedRoot.toString())
+        .errorStream(new PrintStream("target/test/unstreamed-err.txt")).build().generate();
+    final Path root = Paths.get("target/test/streamed-doc");
+    try (InputStream inputStream = new FileInputStream("src/test/resources/docgen-sample.xml")) {
+      DocGenerator.builder().inputStream(inputStream).outputRootDir(root.toString())
+          .streaming(true).errorStream(new PrintStream("target/test/streamed-err.txt")).build()
+          .generate();
+    }
+
+    try (Stream<Path> paths = Files.walk(expectedRoot)) {
+      for (final Path expected : paths.filter(p -> p.toString().endsWith(".html"))
+          .collect(Collectors.toList())) {
+        final Path actual = root.resolve(expectedRoot.relativize(expected));
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual),
+            actual.toString());
+      }
+    }
+  }
+
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.docgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ZipFileManagerTest {
+
+  @BeforeAll
+  public static void setupOnce() {
+    new File("target/test").mkdirs();
+  }
+
+  @Test
+  public void writeConcurrently() throws Exception {
+    final String fileName = "target/test/concurrent.zip";
+    final int entries = 64;
+    try (ZipFileManager manager = new ZipFileManager(9)) {
+      final Path root = manager.makeRootPath(fileName);
+      final ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+          final Path path = root.resolve(String.format("page%d.html", i));
+          final String content = String.format("<p>page %d</p>", i).repeat(100);
+          futures.add(executor.submit(() -> {
+            try (Writer writer = manager.getWriter(path)) {
+              writer.write(content);
+            }
+            return null;
+          }));
+        }
+        for (final Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdown();
+      }
+      try (OutputStream out = manager.getOutputStream(root.resolve("img/image.png"))) {
+        out.write(new byte[] {(byte) 0x89, 'P', 'N', 'G'});
+      }
+    }
+
+    try (ZipFile zipFile = new ZipFile(fileName)) {
+      assertEquals(entries + 1, zipFile.size());
+      final ZipEntry page = zipFile.getEntry("page7.html");
+      assertEquals(ZipEntry.DEFLATED, page.getMethod());
+      try (InputStream in = zipFile.getInputStream(page)) {
+        assertEquals("<p>page 7</p>".repeat(100),
+            new String(in.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      assertEquals(ZipEntry.STORED, zipFile.getEntry("img/image.png").getMethod());
+    }
+  }
+
+  @Test
+  public void duplicateEntry() throws Exception {
+    final String fileName = "target/test/duplicate.zip";
+    try (ZipFileManager manager = new ZipFileManager()) {
+      final Path path = manager.makeRootPath(fileName).resolve("page.html");
+      try (Writer writer = manager.getWriter(path)) {
+        writer.write("first");
+      }
+      final Writer writer = manager.getWriter(path);
+      writer.write("second");
+      assertThrows(ZipException.class, writer::close);
+    }
+
+    try (ZipFile zipFile = new ZipFile(fileName)) {
+      assertEquals(1, zipFile.size());
+      try (InputStream in = zipFile.getInputStream(zipFile.getEntry("page.html"))) {
+        assertEquals("first", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  @Test
+  public void invalidLevel() {
+    assertThrows(IllegalArgumentException.class, () -> new ZipFileManager(10));
+  }
+}
@@ -3,9 +3,12 @@ package io.fixprotocol.orchestra.repository;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -34,7 +37,9 @@ import org.xml.sax.SAXParseException;
 import io.fixprotocol.md.event.DocumentParser;
 import io.fixprotocol.orchestra.dsl.antlr.Evaluator;
 import io.fixprotocol.orchestra.dsl.antlr.ScoreException;
+import io.fixprotocol.orchestra.event.Event.Severity;
 import io.fixprotocol.orchestra.event.EventListener;
+import io.fixprotocol.orchestra.repository.ValidationCache.Finding;
 
 /**
  * Validates that an Orchestra repository file conforms to the schema but does not apply
@@ -108,23 +113,78 @@ public class BasicRepositoryValidator {
   protected Predicate<String> isValidName = t -> true;
   protected Predicate<String> isValidString = t -> true;
 
+  private ValidationCache cache;
+  private Path cacheFile;
+  private String currentOwnerKey;
   private int errors = 0;
   private final EventListener eventLogger;
+  private final ExpressionSyntaxCache expressionCache;
   private int fatalErrors = 0;
+  private final Schema schema;
   private int warnings = 0;
-  private Set<String> deprecatedFieldTags = new HashSet<>();
+  // definitions keyed by id and scenario, code sets by name and scenario
+  private final Map<String, Element> codeSets = new HashMap<>();
+  private final Map<String, Element> components = new HashMap<>();
+  private final Set<String> datatypeNames = new HashSet<>();
+  private final Map<String, Element> fields = new HashMap<>();
+  private final Map<String, Element> groups = new HashMap<>();
+  // ids defined in any scenario, to tell a scenario mismatch from a dangling reference
+  private final Set<String> componentIds = new HashSet<>();
+  private final Set<String> fieldIds = new HashSet<>();
+  private final Set<String> groupIds = new HashSet<>();
+  private final Set<String> codeSetNames = new HashSet<>();
+
+  /**
+   * Compiles the repository XML schema
+   *
+   * A compiled schema is immutable and thread-safe, so it may be shared by validators of many files.
+   *
+   * @return a compiled repository schema
+   * @throws SAXException if the schema cannot be parsed
+   * @throws IOException if the schema resources cannot be read
+   */
+  public static Schema newSchema() throws SAXException, IOException {
+    // create a SchemaFactory capable of understanding WXS schemas
+    final SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+    final ResourceResolver resourceResolver = new ResourceResolver();
+    factory.setResourceResolver(resourceResolver);
+
+    // load a WXS schema, represented by a Schema instance
+    try (InputStream schemaStream = Objects
+        .requireNonNull(ResourceResolver.getResourceAsStream(ResourceResolver.ROOT_SCHEMA))) {
+      final Source schemaFile = new StreamSource(schemaStream);
+      return factory.newSchema(schemaFile);
+    }
+  }
 
   public BasicRepositoryValidator(EventListener eventLogger) {
+    this(eventLogger, null, null);
+  }
+
+  /**
+   * Constructs a validator that shares resources with other validators
+   *
+   * @param eventLogger reports validation events
+   * @param schema a compiled repository schema, or {@code null} to compile it on demand
+   * @param expressionCache cache of Score expression syntax, or {@code null} to parse every
+   *        expression
+   */
+  public BasicRepositoryValidator(EventListener eventLogger, Schema schema,
+      ExpressionSyntaxCache expressionCache) {
     this.eventLogger = eventLogger;
+    this.schema = schema;
+    this.expressionCache = expressionCache;
   }
 
   public int error(String format, Object... args) {
     eventLogger.error(format, args);
+    record(Severity.ERROR, format, args);
     return errors++;
   }
 
   public int fatalError(String format, Object... args) {
     eventLogger.fatal(format, args);
+    record(Severity.FATAL, format, args);
     return fatalErrors++;
   }
 
@@ -156,7 +216,11 @@ public class BasicRepositoryValidator {
     Document xmlDocument;
     try {
       xmlDocument = validateSchema(inputStream, errorHandler);
-      // must validate fields first because it collects deprecated fields
+      if (cacheFile != null) {
+        cache = ValidationCache.load(cacheFile, getClass().getName());
+        cache.index(xmlDocument);
+      }
+      indexDefinitions(xmlDocument);
       validateFields(xmlDocument);
       validateCodesets(xmlDocument);
       validateComponents(xmlDocument);
@@ -164,7 +228,12 @@ public class BasicRepositoryValidator {
       validateMessages(xmlDocument);
       validateExpressions(xmlDocument);
       validateDocumentation(xmlDocument);
+      currentOwnerKey = null;
+      if (cache != null) {
+        cache.save(cacheFile);
+      }
     } catch (final Exception e) {
+      currentOwnerKey = null;
       fatalError("Failed to validate, {0}", e.getMessage());
     }
 
@@ -181,11 +250,154 @@ public class BasicRepositoryValidator {
     }
   }
 
+  /**
+   * Enables incremental validation
+   *
+   * Content hashes and findings of fields, code sets, components, groups and messages are stored
+   * in a cache file. On the next validation, only elements that changed, or that reference
+   * elements that changed, are validated again; findings of the others are reported from the
+   * cache. XML schema validation is always performed in full.
+   *
+   * @param cacheFile path of a cache file. It is created if it does not exist.
+   */
+  public void setCacheFile(Path cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
   public int warning(String format, Object... args) {
     eventLogger.warn(format, args);
+    record(Severity.WARN, format, args);
     return warnings++;
   }
 
+  /**
+   * Indexes definitions of fields, code sets, components, groups and datatypes in one pass so
+   * that references can be resolved without searching the document
+   *
+   * @param xmlDocument a parsed repository
+   */
+  protected void indexDefinitions(Document xmlDocument) {
+    codeSets.clear();
+    codeSetNames.clear();
+    components.clear();
+    componentIds.clear();
+    datatypeNames.clear();
+    fields.clear();
+    fieldIds.clear();
+    groups.clear();
+    groupIds.clear();
+    final Element root = xmlDocument.getDocumentElement();
+    for (Node section = root.getFirstChild(); section != null; section =
+        section.getNextSibling()) {
+      if (section.getNodeType() != Node.ELEMENT_NODE) {
+        continue;
+      }
+      for (Node node = section.getFirstChild(); node != null; node = node.getNextSibling()) {
+        if (node.getNodeType() != Node.ELEMENT_NODE
+            || !REPOSITORY_NAMESPACE.equals(node.getNamespaceURI())) {
+          continue;
+        }
+        final Element element = (Element) node;
+        final String id = element.getAttribute("id");
+        final String key = id + ":" + scenarioOf(element);
+        switch (element.getLocalName()) {
+          case "field":
+            fields.putIfAbsent(key, element);
+            fieldIds.add(id);
+            break;
+          case "codeSet":
+            final String name = element.getAttribute("name");
+            codeSets.putIfAbsent(name + ":" + scenarioOf(element), element);
+            codeSetNames.add(name);
+            break;
+          case "component":
+            components.putIfAbsent(key, element);
+            componentIds.add(id);
+            break;
+          case "group":
+            groups.putIfAbsent(key, element);
+            groupIds.add(id);
+            break;
+          case "datatype":
+            datatypeNames.add(element.getAttribute("name"));
+            break;
+          default:
+            break;
+        }
+      }
+    }
+  }
+
+  private static boolean isDeprecated(Element element) {
+    return element.getAttribute("deprecated").length() > 0
+        || element.getAttribute("deprecatedEP").length() > 0;
+  }
+
+  private static String scenarioOf(Element element) {
+    final String scenario = element.getAttribute("scenario");
+    return scenario.isEmpty() ? "base" : scenario;
+  }
+
+  /**
+   * Prepares to validate a tracked element
+   *
+   * When incremental validation is enabled and the element is unchanged since the previous
+   * validation, its previous findings are reported again instead.
+   *
+   * @param element a field, code set, component, group or message
+   * @return {@code true} if the element must be validated
+   */
+  private boolean beginElement(Element element) {
+    currentOwnerKey = null;
+    if (cache == null) {
+      return true;
+    }
+    final String key = cache.getKey(element);
+    if (key == null || cache.isDirty(key)) {
+      currentOwnerKey = key;
+      return true;
+    }
+    for (final Finding finding : cache.getFindings(key)) {
+      switch (finding.getSeverity()) {
+        case FATAL:
+          fatalError("{0}", finding.getMessage());
+          break;
+        case ERROR:
+          error("{0}", finding.getMessage());
+          break;
+        default:
+          warning("{0}", finding.getMessage());
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Prepares to validate a node that is part of a tracked element, such as documentation
+   *
+   * @param node a node of the document
+   * @return {@code true} if the node must be validated; {@code false} if its findings were reported
+   *         with its owning element
+   */
+  private boolean beginPart(Node node) {
+    currentOwnerKey = null;
+    if (cache == null) {
+      return true;
+    }
+    final String key = cache.getOwnerKey(node);
+    if (key == null || cache.isDirty(key)) {
+      currentOwnerKey = key;
+      return true;
+    }
+    return false;
+  }
+
+  private void record(Severity severity, String format, Object... args) {
+    if (cache != null && currentOwnerKey != null) {
+      cache.record(currentOwnerKey, severity, MessageFormat.format(format, args));
+    }
+  }
+
   protected void validateCodes(NodeList codeElements, Element codesetElement,
       Predicate<String> isCodeValid) {
     for (int i = 0; i < codeElements.getLength(); i++) {
@@ -226,6 +438,9 @@ public class BasicRepositoryValidator {
         final short nodeType = codesetNode.getNodeType();
         if (nodeType == Node.ELEMENT_NODE) {
           final Element codesetElement = (Element) codesetNode;
+          if (!beginElement(codesetElement)) {
+            continue;
+          }
           final String codesetName = codesetElement.getAttribute("name");
           final String codesetId = codesetElement.getAttribute("id");
           final String datatype = codesetElement.getAttribute("type");
@@ -277,6 +492,9 @@ public class BasicRepositoryValidator {
         final short nodeType = node.getNodeType();
         if (nodeType == Node.ELEMENT_NODE) {
           final Element element = (Element) node;
+          if (!beginElement(element)) {
+            continue;
+          }
           final String name = element.getAttribute("name");
           final String id = element.getAttribute("id");
           final String abbrName = element.getAttribute("abbrName");
@@ -293,7 +511,7 @@ public class BasicRepositoryValidator {
             warning("RepositoryValidator: component {0} (id={1}) is deprecated",
                 name, id);
           }
-          validateMembers(node, name, id);
+          validateMembers(element, name, id);
         }
       }
     } catch (final XPathExpressionException e) {
@@ -301,29 +519,72 @@ public class BasicRepositoryValidator {
     }
   }
 
-  private void validateMembers(Node parentNode, String parentName, String parentId) {
-    final XPath xPath = XPathFactory.newInstance().newXPath();
-    xPath.setNamespaceContext(nsContext);
-    final String expression = "fixr:fieldRef";
-    try {
-      final NodeList nodeList =
-          (NodeList) xPath.compile(expression).evaluate(parentNode, XPathConstants.NODESET);
-      for (int i = 0; i < nodeList.getLength(); i++) {
-        final Node node = nodeList.item(i);
-        final short nodeType = node.getNodeType();
-        if (nodeType == Node.ELEMENT_NODE) {
-          final Element element = (Element) node;
-          final String id = element.getAttribute("id");
-          final boolean isDeprecated = element.getAttribute("deprecated").length() > 0
-              || element.getAttribute("deprecatedEP").length() > 0;
-          if (!isDeprecated && this.deprecatedFieldTags.contains(id)) {
-            warning("RepositoryValidator: {0} has deprecated field id={1} as member",
-                parentName, id);
-          }
-        }
+  /**
+   * Checks references of members to their definitions
+   *
+   * @param parentElement a component, group or message structure
+   * @param parentName name of the component, group or message
+   * @param parentId id of the component, group or message
+   */
+  private void validateMembers(Element parentElement, String parentName, String parentId) {
+    for (Node node = parentElement.getFirstChild(); node != null; node = node.getNextSibling()) {
+      if (node.getNodeType() != Node.ELEMENT_NODE
+          || !REPOSITORY_NAMESPACE.equals(node.getNamespaceURI())) {
+        continue;
       }
-    } catch (final XPathExpressionException e) {
-      fatalError("Failed to locate members; {}", e.getMessage());
+      final Element element = (Element) node;
+      switch (element.getLocalName()) {
+        case "fieldRef":
+        case "numInGroup":
+          validateReference(element, "field", fields, fieldIds, parentName, parentId);
+          break;
+        case "componentRef":
+          validateReference(element, "component", components, componentIds, parentName,
+              parentId);
+          break;
+        case "groupRef":
+          validateReference(element, "group", groups, groupIds, parentName, parentId);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private void validateFieldType(Element fieldElement, String name, String id) {
+    final String type = fieldElement.getAttribute("type");
+    // a repository without datatypes cannot be checked
+    if (type.isEmpty() || datatypeNames.isEmpty() || datatypeNames.contains(type)) {
+      return;
+    }
+    final String scenario = scenarioOf(fieldElement);
+    if (!codeSets.containsKey(type + ":" + scenario)) {
+      if (codeSetNames.contains(type)) {
+        error("RepositoryValidator: field {0}({1}) type {2} not defined in scenario {3}", name, id,
+            type, scenario);
+      } else {
+        error("RepositoryValidator: field {0}({1}) has undefined type {2}", name, id, type);
+      }
+    }
+  }
+
+  private void validateReference(Element refElement, String kind, Map<String, Element> definitions,
+      Set<String> definedIds, String parentName, String parentId) {
+    final String id = refElement.getAttribute("id");
+    final String scenario = scenarioOf(refElement);
+    final Element definition = definitions.get(id + ":" + scenario);
+    if (definition == null) {
+      if (definedIds.contains(id)) {
+        error(
+            "RepositoryValidator: {0} (id={1}) references {2} id={3} not defined in scenario {4}",
+            parentName, parentId, kind, id, scenario);
+      } else {
+        error("RepositoryValidator: {0} (id={1}) references undefined {2} id={3}", parentName,
+            parentId, kind, id);
+      }
+    } else if (!isDeprecated(refElement) && isDeprecated(definition)) {
+      warning("RepositoryValidator: {0} has deprecated {1} id={2} as member", parentName, kind,
+          id);
     }
   }
 
@@ -339,6 +600,9 @@ public class BasicRepositoryValidator {
         final short nodeType = node.getNodeType();
         if (nodeType == Node.ELEMENT_NODE) {
           final Element element = (Element) node;
+          if (!beginPart(element)) {
+            continue;
+          }
           final String document = element.getTextContent();
           if (document.isBlank()) {
             String id = "";
@@ -378,9 +642,16 @@ public class BasicRepositoryValidator {
         final short nodeType = node.getNodeType();
         if (nodeType == Node.ELEMENT_NODE) {
           final Element element = (Element) node;
+          if (!beginPart(element)) {
+            continue;
+          }
           final String condition = element.getTextContent();
           try {
-            Evaluator.validateSyntax(condition);
+            if (expressionCache != null) {
+              expressionCache.validateSyntax(condition);
+            } else {
+              Evaluator.validateSyntax(condition);
+            }
           } catch (final ScoreException exception) {
             error("RepositoryValidator: invalid Score expression '{0}'; {1} at col. {2}", condition,
                 exception.getMessage(), exception.getColumnNumber());
@@ -404,6 +675,9 @@ public class BasicRepositoryValidator {
         final short nodeType = node.getNodeType();
         if (nodeType == Node.ELEMENT_NODE) {
           final Element element = (Element) node;
+          if (!beginElement(element)) {
+            continue;
+          }
           final String name = element.getAttribute("name");
           final String id = element.getAttribute("id");
           final String abbrName = element.getAttribute("abbrName");
@@ -414,13 +688,11 @@ public class BasicRepositoryValidator {
           if (abbrName.length() > 0 && !isValidName.test(abbrName)) {
             warning("RepositoryValidator: field abbrName {0} is invalid (id={1})", abbrName, id);
           }
-          final boolean isDeprecated = element.getAttribute("deprecated").length() > 0
-              || element.getAttribute("deprecatedEP").length() > 0;
-          if (isDeprecated) {
-            this.deprecatedFieldTags.add(id);
+          if (isDeprecated(element)) {
             warning("RepositoryValidator: field {0}({1}) is deprecated",
                 name, id);
           }
+          validateFieldType(element, name, id);
         }
       }
     } catch (final XPathExpressionException e) {
@@ -440,6 +712,9 @@ public class BasicRepositoryValidator {
         final short nodeType = node.getNodeType();
         if (nodeType == Node.ELEMENT_NODE) {
           final Element element = (Element) node;
+          if (!beginElement(element)) {
+            continue;
+          }
           final String name = element.getAttribute("name");
           final String id = element.getAttribute("id");
           final String abbrName = element.getAttribute("abbrName");
@@ -456,7 +731,7 @@ public class BasicRepositoryValidator {
             warning("RepositoryValidator: group {0} (id={1}) is deprecated",
                 name, id);
           }
-          validateMembers(node, name, id);
+          validateMembers(element, name, id);
         }
       }
     } catch (final XPathExpressionException e) {
@@ -476,6 +751,9 @@ public class BasicRepositoryValidator {
         final short nodeType = node.getNodeType();
         if (nodeType == Node.ELEMENT_NODE) {
           final Element element = (Element) node;
+          if (!beginElement(element)) {
+            continue;
+          }
           final String name = element.getAttribute("name");
           final String id = element.getAttribute("id");
           final String abbrName = element.getAttribute("abbrName");
@@ -491,10 +769,13 @@ public class BasicRepositoryValidator {
             warning("RepositoryValidator: message {0} (id={1}) is deprecated",
                 name, id);
           }
-          NodeList children = element.getElementsByTagName("fixr:structure");
-          Node structureNode = children.item(0);
-          if (structureNode != null) {
-            validateMembers(structureNode, name, id);
+          for (Node child = element.getFirstChild(); child != null; child =
+              child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE
+                && REPOSITORY_NAMESPACE.equals(child.getNamespaceURI())
+                && "structure".equals(child.getLocalName())) {
+              validateMembers((Element) child, name, id);
+            }
           }
         }
       }
@@ -512,20 +793,7 @@ public class BasicRepositoryValidator {
     final DocumentBuilder parser = parserFactory.newDocumentBuilder();
     final Document document = parser.parse(inputStream);
 
-    // create a SchemaFactory capable of understanding WXS schemas
-    final SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-    final ResourceResolver resourceResolver = new ResourceResolver();
-    factory.setResourceResolver(resourceResolver);
-
-    // load a WXS schema, represented by a Schema instance
-    final URL resourceUrl = this.getClass().getClassLoader().getResource("xsd/repository.xsd");
-    final String path = Objects.requireNonNull(resourceUrl).getPath();
-    final String parentPath = path.substring(0, path.lastIndexOf('/'));
-    final URL baseUrl = new URL(resourceUrl.getProtocol(), null, parentPath);
-    resourceResolver.setBaseUrl(baseUrl);
-
-    final Source schemaFile = new StreamSource(resourceUrl.openStream());
-    final Schema schema = factory.newSchema(schemaFile);
+    final Schema schema = this.schema != null ? this.schema : newSchema();
 
     // create a Validator instance, which can be used to validate an instance document
     final Validator validator = schema.newValidator();
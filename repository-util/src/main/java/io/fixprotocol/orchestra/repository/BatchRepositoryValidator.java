@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.repository;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.validation.Schema;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import io.fixprotocol.orchestra.event.TeeEventListener;
+import io.fixprotocol.orchestra.repository.JSONBatchReport.FileResult;
+
+/**
+ * Validates many Orchestra repository files in one run
+ *
+ * <p>
+ * Inputs may be files, directories (all {@code .xml} files beneath them) or glob patterns such as
+ * {@code specs/**&#47;*.xml}. Files are validated concurrently by a bounded pool of workers that
+ * share one compiled schema and one cache of Score expressions. Results are aggregated into a
+ * single JSON report with a summary for each file.
+ * </p>
+ * <p>
+ * A file is valid if it has no errors or fatal errors; warnings are allowed.
+ * </p>
+ *
+ * @see RepositoryValidator
+ */
+public class BatchRepositoryValidator {
+
+  public static class Builder {
+    private String eventFile;
+    private final List<String> inputs = new ArrayList<>();
+    private String style = RepositoryValidator.FIX_STYLE;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    public BatchRepositoryValidator build() {
+      return new BatchRepositoryValidator(this);
+    }
+
+    public Builder eventLog(String eventFile) {
+      this.eventFile = eventFile;
+      return this;
+    }
+
+    /**
+     * Adds an input to validate
+     *
+     * @param input path of a file or directory, or a glob pattern
+     * @return this Builder
+     */
+    public Builder input(String input) {
+      this.inputs.add(input);
+      return this;
+    }
+
+    public Builder style(String style) {
+      this.style = style;
+      return this;
+    }
+
+    /**
+     * @param threads maximum number of files to validate concurrently
+     * @return this Builder
+     */
+    public Builder threads(int threads) {
+      this.threads = threads;
+      return this;
+    }
+  }
+
+  private static final String GLOB_CHARS = "*?[{";
+  private static final String XML_EXTENSION = ".xml";
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Execute BatchRepositoryValidator with command line arguments
+   *
+   * @param args command line arguments
+   *
+   *        <pre>
+usage: BatchRepositoryValidator [options] &lt;input&gt;...
+ -?,--help             display usage
+ -e,--eventlog &lt;arg&gt;   path of JSON report file
+ -s,--style &lt;arg&gt;      validation style
+ -t,--threads &lt;arg&gt;    maximum number of concurrent validations
+   *        </pre>
+   */
+  public static void main(String[] args) {
+    BatchRepositoryValidator validator;
+    try {
+      validator = BatchRepositoryValidator.parseArgs(args).build();
+      System.exit(validator.validate() ? 0 : 1);
+    } catch (ParseException e) {
+      System.exit(1);
+    }
+  }
+
+  static Builder parseArgs(String[] args) throws ParseException {
+    final Options options = new Options();
+    options.addOption(Option.builder("e").desc("path of JSON report file").longOpt("eventlog")
+        .numberOfArgs(1).build());
+    options.addOption(
+        Option.builder("s").desc("validation style").longOpt("style").numberOfArgs(1).build());
+    options.addOption(Option.builder("t").desc("maximum number of concurrent validations")
+        .longOpt("threads").numberOfArgs(1).build());
+    options.addOption(Option.builder("?").desc("display usage").longOpt("help").build());
+
+    final DefaultParser parser = new DefaultParser();
+    CommandLine cmd;
+
+    final Builder builder = new Builder();
+
+    try {
+      cmd = parser.parse(options, args);
+
+      if (cmd.hasOption("?")) {
+        showHelp(options);
+        System.exit(0);
+      }
+
+      builder.inputs.addAll(cmd.getArgList());
+
+      if (cmd.hasOption("e")) {
+        builder.eventFile = cmd.getOptionValue("e");
+      }
+
+      if (cmd.hasOption("s")) {
+        builder.style = cmd.getOptionValue("s");
+      }
+
+      if (cmd.hasOption("t")) {
+        try {
+          builder.threads = Integer.parseInt(cmd.getOptionValue("t"));
+        } catch (final NumberFormatException e) {
+          throw new ParseException("Invalid number of threads " + cmd.getOptionValue("t"));
+        }
+      }
+
+      return builder;
+    } catch (final ParseException e) {
+      System.err.println(e.getMessage());
+      showHelp(options);
+      throw e;
+    }
+  }
+
+  /**
+   * Expands inputs to the list of files to validate
+   *
+   * @param inputs paths of files or directories, or glob patterns
+   * @return distinct paths of files in order of inputs
+   * @throws IOException if a directory cannot be read
+   */
+  static List<Path> resolveInputs(List<String> inputs) throws IOException {
+    final Set<Path> paths = new LinkedHashSet<>();
+    for (final String input : inputs) {
+      final int globPos = indexOfGlob(input);
+      if (globPos >= 0) {
+        // walk from the deepest directory that precedes the pattern
+        final int dirPos = input.lastIndexOf('/', globPos);
+        final Path baseDir =
+            dirPos >= 0 ? Paths.get(input.substring(0, dirPos + 1)) : Paths.get(".");
+        final PathMatcher matcher =
+            FileSystems.getDefault().getPathMatcher("glob:" + input.substring(dirPos + 1));
+        if (Files.isDirectory(baseDir)) {
+          try (Stream<Path> stream = Files.walk(baseDir)) {
+            paths.addAll(stream.filter(Files::isRegularFile)
+                .filter(p -> matcher.matches(baseDir.relativize(p))).sorted()
+                .collect(Collectors.toList()));
+          }
+        }
+      } else {
+        final Path path = Paths.get(input);
+        if (Files.isDirectory(path)) {
+          try (Stream<Path> stream = Files.walk(path)) {
+            paths.addAll(stream.filter(Files::isRegularFile)
+                .filter(p -> p.getFileName().toString().endsWith(XML_EXTENSION)).sorted()
+                .collect(Collectors.toList()));
+          }
+        } else {
+          paths.add(path);
+        }
+      }
+    }
+    return new ArrayList<>(paths);
+  }
+
+  static void showHelp(final Options options) {
+    final HelpFormatter formatter = new HelpFormatter();
+    formatter.printHelp("BatchRepositoryValidator [options] <input>...", options);
+  }
+
+  private static int indexOfGlob(String input) {
+    for (int i = 0; i < input.length(); i++) {
+      if (GLOB_CHARS.indexOf(input.charAt(i)) >= 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  final Logger logger = LogManager.getLogger(BatchRepositoryValidator.class);
+  private final String eventFile;
+  private final List<String> inputs;
+  private final String style;
+  private final int threads;
+
+  private BatchRepositoryValidator(Builder builder) {
+    this.eventFile = builder.eventFile;
+    this.inputs = new ArrayList<>(builder.inputs);
+    this.style = builder.style;
+    this.threads = Math.max(1, builder.threads);
+  }
+
+  /**
+   * Validates all input files
+   *
+   * @return Returns {@code true} if every file is valid, {@code false} if any file has errors
+   *         or the batch could not be run
+   */
+  public boolean validate() {
+    try {
+      if (inputs.isEmpty()) {
+        throw new IllegalArgumentException("No input file specified");
+      }
+      final List<Path> paths = resolveInputs(inputs);
+      final Schema schema = BasicRepositoryValidator.newSchema();
+      final ExpressionSyntaxCache expressionCache = new ExpressionSyntaxCache();
+
+      final List<FileResult> results = new ArrayList<>(paths.size());
+      final ExecutorService executor =
+          Executors.newFixedThreadPool(Math.min(threads, Math.max(1, paths.size())));
+      try {
+        final List<Future<FileResult>> futures = new ArrayList<>(paths.size());
+        for (final Path path : paths) {
+          futures.add(executor.submit(() -> validateFile(path, schema, expressionCache)));
+        }
+        for (final Future<FileResult> future : futures) {
+          results.add(future.get());
+        }
+      } finally {
+        executor.shutdown();
+      }
+
+      final long validCount = results.stream().filter(FileResult::isValid).count();
+      if (eventFile != null) {
+        try (JSONBatchReport report = new JSONBatchReport(new FileOutputStream(eventFile))) {
+          report.info("BatchRepositoryValidator validated {0,number,integer} files; style={1}",
+              results.size(), style);
+          results.forEach(report::addFileResult);
+        }
+      }
+      logger.info("BatchRepositoryValidator complete; files={} valid={} invalid={}",
+          results.size(), validCount, results.size() - validCount);
+      return validCount == results.size();
+    } catch (final ExecutionException e) {
+      logger.fatal("BatchRepositoryValidator failed", e.getCause());
+      return false;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.fatal("BatchRepositoryValidator interrupted");
+      return false;
+    } catch (final Exception e) {
+      logger.fatal("BatchRepositoryValidator failed", e);
+      return false;
+    }
+  }
+
+  private FileResult validateFile(Path path, Schema schema, ExpressionSyntaxCache expressionCache) {
+    final FileResult result = new FileResult(path.toString());
+    final TeeEventListener eventLogger = (TeeEventListener) RepositoryValidator.createLogger(null);
+    eventLogger.addEventListener(result);
+
+    BasicRepositoryValidator impl;
+    if (RepositoryValidator.FIX_STYLE.equalsIgnoreCase(this.style)) {
+      impl = new FixRepositoryValidator(eventLogger, schema, expressionCache);
+    } else {
+      impl = new BasicRepositoryValidator(eventLogger, schema, expressionCache);
+    }
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      final boolean isValid = impl.validate(inputStream) && impl.getErrors() == 0;
+      result.setOutcome(isValid, impl.getFatalErrors(), impl.getErrors(), impl.getWarnings());
+    } catch (final IOException e) {
+      impl.fatalError("Failed to read {0}; {1}", path, e.getMessage());
+      result.setOutcome(false, impl.getFatalErrors(), impl.getErrors(), impl.getWarnings());
+    }
+    return result;
+  }
+
+}
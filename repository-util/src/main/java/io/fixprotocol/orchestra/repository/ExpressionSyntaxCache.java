@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.repository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import io.fixprotocol.orchestra.dsl.antlr.Evaluator;
+import io.fixprotocol.orchestra.dsl.antlr.ScoreException;
+
+/**
+ * Remembers the outcome of Score expression syntax validation so that each distinct expression is
+ * parsed only once
+ *
+ * Instances are thread-safe and may be shared by validators running concurrently.
+ */
+public class ExpressionSyntaxCache {
+
+  private final Map<String, Optional<ScoreException>> results = new ConcurrentHashMap<>();
+
+  /**
+   * @return number of distinct expressions that have been parsed
+   */
+  public int size() {
+    return results.size();
+  }
+
+  /**
+   * Validates the syntax of a Score expression, parsing it only if it has not been seen before
+   *
+   * @param expression a Score expression
+   * @throws ScoreException if the expression is syntactically invalid
+   */
+  public void validateSyntax(String expression) throws ScoreException {
+    final Optional<ScoreException> result = results.computeIfAbsent(expression, e -> {
+      try {
+        Evaluator.validateSyntax(e);
+        return Optional.empty();
+      } catch (final ScoreException exception) {
+        return Optional.of(exception);
+      }
+    });
+    if (result.isPresent()) {
+      throw result.get();
+    }
+  }
+}
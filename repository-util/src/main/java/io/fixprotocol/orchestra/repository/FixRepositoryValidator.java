@@ -1,5 +1,6 @@
 package io.fixprotocol.orchestra.repository;
 
+import javax.xml.validation.Schema;
 import io.fixprotocol.orchestra.event.EventListener;
 
 /**
@@ -11,7 +12,20 @@ import io.fixprotocol.orchestra.event.EventListener;
 public class FixRepositoryValidator extends BasicRepositoryValidator {
 
   public FixRepositoryValidator(EventListener eventLogger) {
-    super(eventLogger);
+    this(eventLogger, null, null);
+  }
+
+  /**
+   * Constructs a validator that shares resources with other validators
+   *
+   * @param eventLogger reports validation events
+   * @param schema a compiled repository schema, or {@code null} to compile it on demand
+   * @param expressionCache cache of Score expression syntax, or {@code null} to parse every
+   *        expression
+   */
+  public FixRepositoryValidator(EventListener eventLogger, Schema schema,
+      ExpressionSyntaxCache expressionCache) {
+    super(eventLogger, schema, expressionCache);
 
     isValidBoolean = t -> t.equals("Y") || t.equals("N");
     isValidChar = t -> t.length() == 1 && !Character.isWhitespace(t.charAt(0));
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.fixprotocol.orchestra.event.Event;
+import io.fixprotocol.orchestra.event.EventListener;
+import io.fixprotocol.orchestra.event.json.JSONEventListener;
+
+/**
+ * Aggregates the outcome of validating many repository files into a single JSON document
+ *
+ * <p>
+ * Events reported directly to this listener pertain to the batch as a whole and are written under
+ * {@code events}. When the report is closed, the results of each file are written under
+ * {@code files} in input order, followed by a {@code summary} of totals.
+ * </p>
+ */
+class JSONBatchReport extends JSONEventListener {
+
+  /**
+   * Collects the events and outcome of validating one file
+   *
+   * An instance is only populated by the thread that validates its file.
+   */
+  static class FileResult implements EventListener {
+
+    private int errors = 0;
+    private final List<Event> events = new ArrayList<>();
+    private int fatalErrors = 0;
+    private final String fileName;
+    private boolean valid = false;
+    private int warnings = 0;
+
+    FileResult(String fileName) {
+      this.fileName = fileName;
+    }
+
+    @Override
+    public void close() throws Exception {
+
+    }
+
+    @Override
+    public void event(Event event) {
+      events.add(event);
+    }
+
+    int getErrors() {
+      return errors;
+    }
+
+    List<Event> getEvents() {
+      return Collections.unmodifiableList(events);
+    }
+
+    int getFatalErrors() {
+      return fatalErrors;
+    }
+
+    String getFileName() {
+      return fileName;
+    }
+
+    int getWarnings() {
+      return warnings;
+    }
+
+    boolean isValid() {
+      return valid;
+    }
+
+    void setOutcome(boolean valid, int fatalErrors, int errors, int warnings) {
+      this.valid = valid;
+      this.fatalErrors = fatalErrors;
+      this.errors = errors;
+      this.warnings = warnings;
+    }
+  }
+
+  private final List<FileResult> results = new ArrayList<>();
+
+  JSONBatchReport(OutputStream outputStream) throws IOException {
+    super(outputStream);
+  }
+
+  /**
+   * Adds the result of one file to the report
+   *
+   * @param result outcome of validating a file
+   */
+  synchronized void addFileResult(FileResult result) {
+    results.add(result);
+  }
+
+  @Override
+  public synchronized void close() throws Exception {
+    final JsonGenerator generator = getGenerator();
+    // end of batch events
+    generator.writeEndArray();
+
+    int valid = 0;
+    int fatalErrors = 0;
+    int errors = 0;
+    int warnings = 0;
+    generator.writeArrayFieldStart("files");
+    for (final FileResult result : results) {
+      generator.writeStartObject();
+      generator.writeStringField("file", result.getFileName());
+      generator.writeBooleanField("valid", result.isValid());
+      generator.writeNumberField("fatalErrors", result.getFatalErrors());
+      generator.writeNumberField("errors", result.getErrors());
+      generator.writeNumberField("warnings", result.getWarnings());
+      generator.writeArrayFieldStart("events");
+      for (final Event event : result.getEvents()) {
+        super.event(event);
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+
+      if (result.isValid()) {
+        valid++;
+      }
+      fatalErrors += result.getFatalErrors();
+      errors += result.getErrors();
+      warnings += result.getWarnings();
+    }
+    generator.writeEndArray();
+
+    generator.writeObjectFieldStart("summary");
+    generator.writeNumberField("files", results.size());
+    generator.writeNumberField("valid", valid);
+    generator.writeNumberField("invalid", results.size() - valid);
+    generator.writeNumberField("fatalErrors", fatalErrors);
+    generator.writeNumberField("errors", errors);
+    generator.writeNumberField("warnings", warnings);
+    generator.writeEndObject();
+    super.close();
+  }
+
+  @Override
+  public synchronized void event(Event event) {
+    super.event(event);
+  }
+
+}
@@ -17,6 +17,7 @@ package io.fixprotocol.orchestra.repository;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.nio.file.Paths;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -53,6 +54,7 @@ import io.fixprotocol.orchestra.event.TeeEventListener;
 public class RepositoryValidator {
 
   public static class Builder {
+    private String cacheFile;
     private String eventFile;
     private String inputFile;
     private String style = FIX_STYLE;
@@ -61,6 +63,17 @@ public class RepositoryValidator {
       return new RepositoryValidator(this);
     }
 
+    /**
+     * Enables incremental validation
+     *
+     * @param cacheFile path of a file that retains results between validations
+     * @return this Builder
+     */
+    public Builder cacheFile(String cacheFile) {
+      this.cacheFile = cacheFile;
+      return this;
+    }
+
     public Builder eventLog(String eventFile) {
       this.eventFile = eventFile;
       return this;
@@ -119,6 +132,7 @@ public class RepositoryValidator {
    *        <pre>
 usage: RepositoryValidator [options] &lt;input-file&gt;
  -?,--help             display usage
+ -c,--cache &lt;arg&gt;      path of incremental validation cache file
  -e,--eventlog &lt;arg&gt;   path of JSON event file
  -s,--style &lt;arg&gt;      validation style
    *        </pre>
@@ -135,6 +149,8 @@ usage: RepositoryValidator [options] &lt;input-file&gt;
 
   static Builder parseArgs(String[] args) throws ParseException {
     final Options options = new Options();
+    options.addOption(Option.builder("c").desc("path of incremental validation cache file")
+        .longOpt("cache").numberOfArgs(1).build());
     options.addOption(Option.builder("e").desc("path of JSON event file").longOpt("eventlog")
         .numberOfArgs(1).build());
     options.addOption(
@@ -156,6 +172,10 @@ usage: RepositoryValidator [options] &lt;input-file&gt;
 
       builder.inputFile = !cmd.getArgList().isEmpty() ? cmd.getArgList().get(0) : null;
 
+      if (cmd.hasOption("c")) {
+        builder.cacheFile = cmd.getOptionValue("c");
+      }
+
       if (cmd.hasOption("e")) {
         builder.eventFile = cmd.getOptionValue("e");
       }
@@ -178,11 +198,13 @@ usage: RepositoryValidator [options] &lt;input-file&gt;
   }
 
   final Logger logger = LogManager.getLogger(RepositoryValidator.class);
+  private final String cacheFile;
   private final String eventFile;
   private final String inputFile;
   private final String style;
 
   private RepositoryValidator(Builder builder) {
+    this.cacheFile = builder.cacheFile;
     this.eventFile = builder.eventFile;
     this.inputFile = builder.inputFile;
     this.style = builder.style;
@@ -197,6 +219,9 @@ usage: RepositoryValidator [options] &lt;input-file&gt;
       } else {
         impl = new BasicRepositoryValidator(eventLogger);
       }
+      if (cacheFile != null) {
+        impl.setCacheFile(Paths.get(cacheFile));
+      }
       if (inputFile == null) {
         throw new IllegalArgumentException("No input file specified");
       }
@@ -1,34 +1,88 @@
 package io.fixprotocol.orchestra.repository;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.w3c.dom.ls.LSInput;
 import org.w3c.dom.ls.LSResourceResolver;
 
+/**
+ * Resolves schema files bundled on the class path
+ *
+ * Files are read from the directory of the root schema, {@value #ROOT_SCHEMA}, so that a schema
+ * file of the same name in another archive on the class path is never mixed in.
+ *
+ * The files of the catalog are read once per process and then served from memory, so compiling a
+ * schema does not perform I/O after the first time. Other files are read on first use and cached
+ * in the same way.
+ */
 class ResourceResolver implements LSResourceResolver {
 
-  private URL baseUrl;
+  /**
+   * Schema files that are preloaded
+   */
+  static final List<String> CATALOG = List.of("repository.xsd", "repositorytypes.xsd", "dc.xsd",
+      "dcterms.xsd", "dcmitype.xsd", "xml.xsd");
 
-  @Override
-  public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId,
-      String baseURI) {
-    InputStream resourceAsStream = null;
+  /**
+   * Schema that is compiled; it includes or imports the others
+   */
+  static final String ROOT_SCHEMA = "repository.xsd";
 
-    final int filePos = systemId.lastIndexOf('/') + 1;
-    final String filePath = baseUrl.getPath() + "/" + systemId.substring(filePos);
-    try {
-      final URL fileUrl = new URL(baseUrl.getProtocol(), baseUrl.getHost(), filePath);
-      resourceAsStream = fileUrl.openStream();
+  private static final String RESOURCE_PATH = "xsd/";
+  private static final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+  private static final URL rootUrl =
+      ResourceResolver.class.getClassLoader().getResource(RESOURCE_PATH + ROOT_SCHEMA);
+
+  static {
+    for (final String fileName : CATALOG) {
+      final byte[] bytes = readResource(fileName);
+      if (bytes != null) {
+        resources.put(fileName, bytes);
+      }
+    }
+  }
+
+  /**
+   * Returns the contents of a bundled schema file
+   *
+   * @param fileName name of a file in the schema resource directory
+   * @return a stream over a cached copy of the file, or {@code null} if it is not found
+   */
+  static InputStream getResourceAsStream(String fileName) {
+    byte[] bytes = resources.get(fileName);
+    if (bytes == null) {
+      bytes = readResource(fileName);
+      if (bytes == null) {
+        return null;
+      }
+      resources.putIfAbsent(fileName, bytes);
+    }
+    return new ByteArrayInputStream(bytes);
+  }
+
+  private static byte[] readResource(String fileName) {
+    if (rootUrl == null) {
+      return null;
+    }
+    try (InputStream in = new URL(rootUrl, fileName).openStream()) {
+      return in.readAllBytes();
     } catch (final IOException e) {
       // Not a fatal error for schema validation
+      return null;
     }
-    return new Input(publicId, systemId, resourceAsStream, baseURI);
   }
 
-
-  public void setBaseUrl(URL baseUrl) {
-    this.baseUrl = baseUrl;
+  @Override
+  public LSInput resolveResource(String type, String namespaceURI, String publicId,
+      String systemId, String baseURI) {
+    final int filePos = systemId.lastIndexOf('/') + 1;
+    final InputStream resourceAsStream = getResourceAsStream(systemId.substring(filePos));
+    return new Input(publicId, systemId, resourceAsStream, baseURI);
   }
 
 }
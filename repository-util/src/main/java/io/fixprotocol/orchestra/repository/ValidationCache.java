@@ -0,0 +1,443 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import io.fixprotocol.orchestra.event.Event.Severity;
+
+/**
+ * Content hashes and findings of repository elements from a previous validation
+ *
+ * <p>
+ * Fields, code sets, components, groups and messages are tracked by kind, id and scenario. An
+ * element must be validated again if its content changed or if an element that it references was
+ * changed, added or removed. Otherwise, its findings from the previous run are reported again
+ * without validating it.
+ * </p>
+ * <p>
+ * Whether the type of a field is defined depends on the names of all datatypes and code sets, so
+ * every field references a pseudo-element whose hash covers those names.
+ * </p>
+ */
+class ValidationCache {
+
+  static final class Finding {
+    private final String message;
+    private final Severity severity;
+
+    Finding(Severity severity, String message) {
+      this.severity = severity;
+      this.message = message;
+    }
+
+    String getMessage() {
+      return message;
+    }
+
+    Severity getSeverity() {
+      return severity;
+    }
+  }
+
+  private static final class Entry {
+    private final List<Finding> findings = new ArrayList<>();
+    private final byte[] hash;
+    private final Set<String> references;
+
+    Entry(byte[] hash, Set<String> references) {
+      this.hash = hash;
+      this.references = references;
+    }
+  }
+
+  private static final String BASE_SCENARIO = "base";
+  private static final int MAGIC = 0x4f524356; // "ORCV"
+  // pseudo-element of the names of datatypes and code sets
+  private static final String TYPE_NAMES_KEY = "typeNames";
+  private static final List<String> TRACKED_ELEMENTS =
+      List.of("field", "codeSet", "component", "group", "message");
+  private static final int VERSION = 1;
+
+  /**
+   * Loads a cache file
+   *
+   * @param path path of a cache file
+   * @param style identifies the rules applied by a validator. Findings produced under other rules
+   *        are discarded.
+   * @return a populated cache, or an empty one if the file does not exist or is incompatible
+   * @throws IOException if the file cannot be read
+   */
+  static ValidationCache load(Path path, String style) throws IOException {
+    final ValidationCache cache = new ValidationCache(style);
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION || !style.equals(readString(in))) {
+        return cache;
+      }
+      final int entryCount = in.readInt();
+      for (int i = 0; i < entryCount; i++) {
+        final String key = readString(in);
+        final byte[] hash = new byte[in.readInt()];
+        in.readFully(hash);
+        final int referenceCount = in.readInt();
+        final Set<String> references = new HashSet<>(referenceCount);
+        for (int j = 0; j < referenceCount; j++) {
+          references.add(readString(in));
+        }
+        final Entry entry = new Entry(hash, references);
+        final int findingCount = in.readInt();
+        for (int j = 0; j < findingCount; j++) {
+          final Severity severity = Severity.values()[in.readByte()];
+          entry.findings.add(new Finding(severity, readString(in)));
+        }
+        cache.previousEntries.put(key, entry);
+      }
+    } catch (final NoSuchFileException e) {
+      // first run
+    }
+    return cache;
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private final Set<String> changedKeys = new HashSet<>();
+  private final Map<String, Entry> currentEntries = new LinkedHashMap<>();
+  private final Map<Element, String> elementKeys = new IdentityHashMap<>();
+  private final Map<String, Entry> previousEntries = new HashMap<>();
+  private final String style;
+
+  private ValidationCache(String style) {
+    this.style = style;
+  }
+
+  /**
+   * Computes content hashes and references of all tracked elements of a document and determines
+   * which of them must be validated again
+   *
+   * @param document a parsed repository
+   */
+  void index(Document document) {
+    final MessageDigest digest = newDigest();
+    final Map<String, String> codeSetKeysByName = new HashMap<>();
+    final Set<String> keys = new HashSet<>();
+    final List<Element> elements = new ArrayList<>();
+    for (final String localName : TRACKED_ELEMENTS) {
+      final NodeList nodeList =
+          document.getElementsByTagNameNS(BasicRepositoryValidator.REPOSITORY_NAMESPACE, localName);
+      for (int i = 0; i < nodeList.getLength(); i++) {
+        final Element element = (Element) nodeList.item(i);
+        final String baseKey = newKey(localName, element.getAttribute("id"), scenarioOf(element));
+        String key = baseKey;
+        // duplicate definitions are tracked separately in document order
+        for (int ordinal = 2; !keys.add(key); ordinal++) {
+          key = baseKey + "#" + ordinal;
+        }
+        elementKeys.put(element, key);
+        elements.add(element);
+        if ("codeSet".equals(localName)) {
+          codeSetKeysByName.putIfAbsent(element.getAttribute("name") + ":" + scenarioOf(element),
+              key);
+        }
+      }
+    }
+
+    currentEntries.put(TYPE_NAMES_KEY,
+        new Entry(hashTypeNames(document, codeSetKeysByName.keySet()), Collections.emptySet()));
+
+    for (final Element element : elements) {
+      final Set<String> references = new HashSet<>();
+      if ("field".equals(element.getLocalName())) {
+        references.add(TYPE_NAMES_KEY);
+        final String codeSetKey =
+            codeSetKeysByName.get(element.getAttribute("type") + ":" + scenarioOf(element));
+        if (codeSetKey != null) {
+          references.add(codeSetKey);
+        }
+      } else {
+        collectReferences(element, references);
+      }
+      digest.reset();
+      updateDigest(digest, element);
+      currentEntries.put(elementKeys.get(element), new Entry(digest.digest(), references));
+    }
+
+    for (final Map.Entry<String, Entry> current : currentEntries.entrySet()) {
+      final Entry previous = previousEntries.get(current.getKey());
+      if (previous == null || !Arrays.equals(previous.hash, current.getValue().hash)) {
+        changedKeys.add(current.getKey());
+      }
+    }
+    for (final String key : previousEntries.keySet()) {
+      if (!currentEntries.containsKey(key)) {
+        changedKeys.add(key);
+      }
+    }
+
+    // retain findings of elements that need not be validated again
+    for (final Map.Entry<String, Entry> current : currentEntries.entrySet()) {
+      if (!isDirty(current.getKey())) {
+        current.getValue().findings.addAll(previousEntries.get(current.getKey()).findings);
+      }
+    }
+  }
+
+  /**
+   * @param key key of a tracked element
+   * @return findings of the element from the previous validation
+   */
+  List<Finding> getFindings(String key) {
+    final Entry entry = currentEntries.get(key);
+    return entry != null ? Collections.unmodifiableList(entry.findings) : Collections.emptyList();
+  }
+
+  /**
+   * @param element an element of the indexed document
+   * @return key of the element if it is tracked, otherwise {@code null}
+   */
+  String getKey(Element element) {
+    return elementKeys.get(element);
+  }
+
+  /**
+   * Finds the tracked element that contains a node
+   *
+   * @param node a node of the indexed document
+   * @return key of the nearest tracked ancestor or self, or {@code null} if none
+   */
+  String getOwnerKey(Node node) {
+    for (Node n = node; n != null; n = n.getParentNode()) {
+      if (n.getNodeType() == Node.ELEMENT_NODE) {
+        final String key = elementKeys.get(n);
+        if (key != null) {
+          return key;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param key key of a tracked element
+   * @return {@code true} if the element or an element that it references changed since the
+   *         previous validation
+   */
+  boolean isDirty(String key) {
+    if (changedKeys.contains(key)) {
+      return true;
+    }
+    final Set<String> references = new LinkedHashSet<>(currentEntries.get(key).references);
+    final Entry previous = previousEntries.get(key);
+    if (previous != null) {
+      references.addAll(previous.references);
+    }
+    for (final String reference : references) {
+      if (changedKeys.contains(reference)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Records a finding of an element that is being validated
+   *
+   * @param key key of a tracked element
+   * @param severity severity of the finding
+   * @param message formatted message
+   */
+  void record(String key, Severity severity, String message) {
+    final Entry entry = currentEntries.get(key);
+    if (entry != null) {
+      entry.findings.add(new Finding(severity, message));
+    }
+  }
+
+  /**
+   * Writes hashes and findings of the indexed document to a cache file
+   *
+   * @param path path of the cache file
+   * @throws IOException if the file cannot be written
+   */
+  void save(Path path) throws IOException {
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writeString(out, style);
+      out.writeInt(currentEntries.size());
+      for (final Map.Entry<String, Entry> mapEntry : currentEntries.entrySet()) {
+        final Entry entry = mapEntry.getValue();
+        writeString(out, mapEntry.getKey());
+        out.writeInt(entry.hash.length);
+        out.write(entry.hash);
+        out.writeInt(entry.references.size());
+        for (final String reference : entry.references) {
+          writeString(out, reference);
+        }
+        out.writeInt(entry.findings.size());
+        for (final Finding finding : entry.findings) {
+          out.writeByte(finding.getSeverity().ordinal());
+          writeString(out, finding.getMessage());
+        }
+      }
+    }
+  }
+
+  private void collectReferences(Element element, Set<String> references) {
+    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        final Element childElement = (Element) child;
+        final String kind;
+        switch (childElement.getLocalName()) {
+          case "fieldRef":
+          case "numInGroup":
+            kind = "field";
+            break;
+          case "componentRef":
+            kind = "component";
+            break;
+          case "groupRef":
+            kind = "group";
+            break;
+          default:
+            kind = null;
+        }
+        if (kind != null) {
+          references.add(newKey(kind, childElement.getAttribute("id"), scenarioOf(childElement)));
+        } else {
+          collectReferences(childElement, references);
+        }
+      }
+    }
+  }
+
+  private byte[] hashTypeNames(Document document, Set<String> codeSetNames) {
+    final List<String> names = new ArrayList<>();
+    for (final String codeSetName : codeSetNames) {
+      names.add("codeSet:" + codeSetName);
+    }
+    final NodeList datatypes =
+        document.getElementsByTagNameNS(BasicRepositoryValidator.REPOSITORY_NAMESPACE, "datatype");
+    for (int i = 0; i < datatypes.getLength(); i++) {
+      names.add("datatype:" + ((Element) datatypes.item(i)).getAttribute("name"));
+    }
+    names.sort(null);
+    final MessageDigest digest = newDigest();
+    for (final String name : names) {
+      update(digest, name);
+    }
+    return digest.digest();
+  }
+
+  private MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String newKey(String kind, String id, String scenario) {
+    return kind + ":" + id + ":" + scenario;
+  }
+
+  private String scenarioOf(Element element) {
+    final String scenario = element.getAttribute("scenario");
+    return scenario.isEmpty() ? BASE_SCENARIO : scenario;
+  }
+
+  private void updateDigest(MessageDigest digest, Node node) {
+    switch (node.getNodeType()) {
+      case Node.ELEMENT_NODE:
+        digest.update((byte) '<');
+        update(digest, node.getNamespaceURI());
+        update(digest, node.getLocalName());
+        final NamedNodeMap attributes = node.getAttributes();
+        final List<Attr> sortedAttributes = new ArrayList<>(attributes.getLength());
+        for (int i = 0; i < attributes.getLength(); i++) {
+          final Attr attribute = (Attr) attributes.item(i);
+          if (!"http://www.w3.org/2000/xmlns/".equals(attribute.getNamespaceURI())) {
+            sortedAttributes.add(attribute);
+          }
+        }
+        sortedAttributes.sort(Comparator.comparing(Attr::getName));
+        for (final Attr attribute : sortedAttributes) {
+          digest.update((byte) '@');
+          update(digest, attribute.getName());
+          update(digest, attribute.getValue());
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+          updateDigest(digest, child);
+        }
+        digest.update((byte) '>');
+        break;
+      case Node.TEXT_NODE:
+      case Node.CDATA_SECTION_NODE:
+        final String text = node.getNodeValue();
+        if (!text.isBlank()) {
+          digest.update((byte) '#');
+          update(digest, text);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void update(MessageDigest digest, String value) {
+    if (value != null) {
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update((byte) 0);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.transformers;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * Passes only one FIX version of a Unified Repository file
+ *
+ * <p>
+ * A Unified Repository contains a {@code fix} element for every version of the protocol. Only one
+ * of them is converted at a time, so the others are dropped as the file is parsed rather than
+ * built into the source tree.
+ * </p>
+ */
+class FixVersionFilter extends XMLFilterImpl {
+
+  private int depth = 0;
+  private int skipDepth = 0;
+  private final String version;
+
+  /**
+   * @param parent reader of a Unified Repository file
+   * @param version value of the {@code version} attribute of the {@code fix} element to retain
+   */
+  FixVersionFilter(XMLReader parent, String version) {
+    super(parent);
+    this.version = version;
+  }
+
+  @Override
+  public void characters(char[] ch, int start, int length) throws SAXException {
+    if (skipDepth == 0) {
+      super.characters(ch, start, length);
+    }
+  }
+
+  @Override
+  public void endElement(String uri, String localName, String qName) throws SAXException {
+    if (skipDepth == 0) {
+      super.endElement(uri, localName, qName);
+    } else if (skipDepth == depth) {
+      skipDepth = 0;
+    }
+    depth--;
+  }
+
+  @Override
+  public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+    if (skipDepth == 0) {
+      super.ignorableWhitespace(ch, start, length);
+    }
+  }
+
+  @Override
+  public void processingInstruction(String target, String data) throws SAXException {
+    if (skipDepth == 0) {
+      super.processingInstruction(target, data);
+    }
+  }
+
+  @Override
+  public void startElement(String uri, String localName, String qName, Attributes atts)
+      throws SAXException {
+    depth++;
+    if (skipDepth == 0) {
+      if (depth == 2 && "fix".equals(localName) && !version.equals(atts.getValue("version"))) {
+        skipDepth = depth;
+      } else {
+        super.startElement(uri, localName, qName, atts);
+      }
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.transformers;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes XML markup as it is copied from a parsed stream
+ *
+ * Unlike {@link javax.xml.stream.XMLStreamWriter}, attributes are written in the order given and an
+ * element without content is closed with an empty-element tag, so a copy keeps the layout of its
+ * source.
+ */
+class MarkupWriter implements AutoCloseable {
+
+  private boolean isTagOpen = false;
+  private final Writer writer;
+
+  MarkupWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  void attribute(String prefix, String localName, String value) throws IOException {
+    writer.write(' ');
+    writeName(prefix, localName);
+    writer.write("=\"");
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '&':
+          writer.write("&amp;");
+          break;
+        case '<':
+          writer.write("&lt;");
+          break;
+        case '"':
+          writer.write("&quot;");
+          break;
+        case '\n':
+          writer.write("&#10;");
+          break;
+        case '\r':
+          writer.write("&#13;");
+          break;
+        case '\t':
+          writer.write("&#9;");
+          break;
+        default:
+          writer.write(c);
+      }
+    }
+    writer.write('"');
+  }
+
+  void cdata(String text) throws IOException {
+    closeTag();
+    writer.write("<![CDATA[");
+    writer.write(text);
+    writer.write("]]>");
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  void comment(String text) throws IOException {
+    closeTag();
+    writer.write("<!--");
+    writer.write(text);
+    writer.write("-->");
+  }
+
+  void declaration(String version, String encoding, Boolean standalone) throws IOException {
+    writer.write("<?xml version=\"");
+    writer.write(version != null ? version : "1.0");
+    writer.write("\" encoding=\"");
+    writer.write(encoding);
+    writer.write('"');
+    if (standalone != null) {
+      writer.write(standalone ? " standalone=\"yes\"" : " standalone=\"no\"");
+    }
+    writer.write("?>");
+  }
+
+  void endElement(String prefix, String localName) throws IOException {
+    if (isTagOpen) {
+      writer.write("/>");
+      isTagOpen = false;
+    } else {
+      writer.write("</");
+      writeName(prefix, localName);
+      writer.write('>');
+    }
+  }
+
+  void namespace(String prefix, String namespaceUri) throws IOException {
+    attribute(prefix == null || prefix.isEmpty() ? null : "xmlns",
+        prefix == null || prefix.isEmpty() ? "xmlns" : prefix, namespaceUri);
+  }
+
+  void processingInstruction(String target, String data) throws IOException {
+    closeTag();
+    writer.write("<?");
+    writer.write(target);
+    if (data != null && !data.isEmpty()) {
+      writer.write(' ');
+      writer.write(data);
+    }
+    writer.write("?>");
+  }
+
+  /**
+   * Starts an element. Its tag is left open for namespaces and attributes until content or its
+   * end is written.
+   */
+  void startElement(String prefix, String localName) throws IOException {
+    closeTag();
+    writer.write('<');
+    writeName(prefix, localName);
+    isTagOpen = true;
+  }
+
+  void text(String text) throws IOException {
+    if (text.isEmpty()) {
+      return;
+    }
+    closeTag();
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      switch (c) {
+        case '&':
+          writer.write("&amp;");
+          break;
+        case '<':
+          writer.write("&lt;");
+          break;
+        case '>':
+          writer.write("&gt;");
+          break;
+        default:
+          writer.write(c);
+      }
+    }
+  }
+
+  private void closeTag() throws IOException {
+    if (isTagOpen) {
+      writer.write('>');
+      isTagOpen = false;
+    }
+  }
+
+  private void writeName(String prefix, String localName) throws IOException {
+    if (prefix != null && !prefix.isEmpty()) {
+      writer.write(prefix);
+      writer.write(':');
+    }
+    writer.write(localName);
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.transformers;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.transform.stream.StreamSource;
+import net.sf.saxon.Configuration;
+import net.sf.saxon.event.ProxyReceiver;
+import net.sf.saxon.event.Receiver;
+import net.sf.saxon.event.Stripper;
+import net.sf.saxon.expr.XPathContext;
+import net.sf.saxon.lib.ExtensionFunctionCall;
+import net.sf.saxon.lib.ExtensionFunctionDefinition;
+import net.sf.saxon.lib.ParseOptions;
+import net.sf.saxon.om.AxisInfo;
+import net.sf.saxon.om.Item;
+import net.sf.saxon.om.NodeInfo;
+import net.sf.saxon.om.NodeName;
+import net.sf.saxon.om.Sequence;
+import net.sf.saxon.om.SpaceStrippingRule;
+import net.sf.saxon.om.StructuredQName;
+import net.sf.saxon.trace.ExpressionPresenter;
+import net.sf.saxon.trans.XPathException;
+import net.sf.saxon.tree.iter.AxisIterator;
+import net.sf.saxon.type.SchemaType;
+import net.sf.saxon.type.Type;
+import net.sf.saxon.value.EmptySequence;
+import net.sf.saxon.value.SequenceType;
+
+/**
+ * Index of a Repository phrases file by {@code textId}
+ *
+ * <p>
+ * A phrases file is parsed and indexed once and then shared by every transformation that reads it,
+ * until the file is modified. The index is exposed to stylesheets as extension functions in
+ * namespace {@value #NAMESPACE}:
+ * </p>
+ * <ul>
+ * <li>{@code phr:document($uri)} returns the document node of a phrases file</li>
+ * <li>{@code phr:phrase($uri, $textId)} returns the {@code phrase} element with a textId, or an
+ * empty sequence</li>
+ * </ul>
+ * <p>
+ * A tree built by one Saxon {@link Configuration} cannot be used by a stylesheet compiled under
+ * another, so the index is kept per configuration. Java code in this package reads the index of the
+ * {@link TemplatesCache} configuration through {@link #getIndex(File)}, which it shares with cached
+ * stylesheets.
+ * </p>
+ */
+public final class PhraseIndex {
+
+  /**
+   * Namespace of the phrase extension functions
+   */
+  public static final String NAMESPACE = "http://fixprotocol.io/orchestra/phrases";
+
+  private static final class DocumentFunction extends ExtensionFunctionDefinition {
+
+    @Override
+    public SequenceType[] getArgumentTypes() {
+      return new SequenceType[] {SequenceType.SINGLE_STRING};
+    }
+
+    @Override
+    public StructuredQName getFunctionQName() {
+      return new StructuredQName("phr", NAMESPACE, "document");
+    }
+
+    @Override
+    public SequenceType getResultType(SequenceType[] suppliedArgumentTypes) {
+      return SequenceType.SINGLE_NODE;
+    }
+
+    @Override
+    public ExtensionFunctionCall makeCallExpression() {
+      return new ExtensionFunctionCall() {
+        @Override
+        public Sequence call(XPathContext context, Sequence[] arguments) throws XPathException {
+          final String uri = arguments[0].head().getStringValue();
+          return getIndex(context.getConfiguration(), uri).document;
+        }
+      };
+    }
+  }
+
+  private static final class PhraseFunction extends ExtensionFunctionDefinition {
+
+    @Override
+    public SequenceType[] getArgumentTypes() {
+      return new SequenceType[] {SequenceType.SINGLE_STRING, SequenceType.OPTIONAL_STRING};
+    }
+
+    @Override
+    public StructuredQName getFunctionQName() {
+      return new StructuredQName("phr", NAMESPACE, "phrase");
+    }
+
+    @Override
+    public SequenceType getResultType(SequenceType[] suppliedArgumentTypes) {
+      return SequenceType.OPTIONAL_NODE;
+    }
+
+    @Override
+    public ExtensionFunctionCall makeCallExpression() {
+      return new ExtensionFunctionCall() {
+        @Override
+        public Sequence call(XPathContext context, Sequence[] arguments) throws XPathException {
+          final String uri = arguments[0].head().getStringValue();
+          final Item textId = arguments[1].head();
+          if (textId == null) {
+            return EmptySequence.getInstance();
+          }
+          final NodeInfo phrase =
+              getIndex(context.getConfiguration(), uri).phrases.get(textId.getStringValue());
+          return phrase != null ? phrase : EmptySequence.getInstance();
+        }
+      };
+    }
+  }
+
+  /**
+   * Index of one phrases file
+   */
+  static final class Entry {
+    final NodeInfo document;
+    final long lastModified;
+    /**
+     * {@code phrase} elements by textId
+     */
+    final Map<String, NodeInfo> phrases;
+    /**
+     * Version attribute of the {@code phrases} element, or {@code null} if absent
+     */
+    final String version;
+
+    Entry(NodeInfo document, long lastModified, Map<String, NodeInfo> phrases, String version) {
+      this.document = document;
+      this.lastModified = lastModified;
+      this.phrases = phrases;
+      this.version = version;
+    }
+  }
+
+  /**
+   * Cache key of a phrases file read under a configuration
+   */
+  private static final class Key {
+    final Configuration configuration;
+    final String uri;
+
+    Key(Configuration configuration, String uri) {
+      this.configuration = configuration;
+      this.uri = uri;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return configuration == other.configuration && uri.equals(other.uri);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(configuration) + uri.hashCode();
+    }
+  }
+
+  /**
+   * Strips whitespace between phrases, retaining whitespace within their text
+   */
+  private static final class PhraseSpaceStrippingRule implements SpaceStrippingRule {
+
+    @Override
+    public void export(ExpressionPresenter presenter) {
+      // not used in exported stylesheets
+    }
+
+    @Override
+    public ProxyReceiver makeStripper(Receiver next) {
+      return new Stripper(this, next);
+    }
+
+    @Override
+    public int isSpacePreserving(NodeName name, SchemaType type) {
+      final String localName = name.getLocalPart();
+      return "phrases".equals(localName) || "phrase".equals(localName) ? Stripper.STRIP_DEFAULT
+          : Stripper.ALWAYS_PRESERVE;
+    }
+  }
+
+  private static final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+
+  /**
+   * Makes the phrase functions available to stylesheets compiled with a configuration
+   *
+   * @param configuration Saxon configuration
+   */
+  public static void register(Configuration configuration) {
+    configuration.registerExtensionFunction(new DocumentFunction());
+    configuration.registerExtensionFunction(new PhraseFunction());
+  }
+
+  /**
+   * Returns the index of a phrases file. It is shared with stylesheets in {@link TemplatesCache}
+   * that read the same file.
+   *
+   * @param phrasesFile a phrases file
+   * @return index of the file
+   * @throws XPathException if the file cannot be parsed
+   */
+  static Entry getIndex(File phrasesFile) throws XPathException {
+    return getIndex(TemplatesCache.getConfiguration(), phrasesFile.toURI().toASCIIString());
+  }
+
+  private static Entry getIndex(Configuration configuration, String uri) throws XPathException {
+    final long lastModified = lastModified(uri);
+    final Key key = new Key(configuration, uri);
+    Entry entry = cache.get(key);
+    if (entry == null || entry.lastModified != lastModified) {
+      synchronized (cache) {
+        entry = cache.get(key);
+        if (entry == null || entry.lastModified != lastModified) {
+          entry = index(configuration, uri, lastModified);
+          cache.put(key, entry);
+        }
+      }
+    }
+    return entry;
+  }
+
+  private static Entry index(Configuration configuration, String uri, long lastModified)
+      throws XPathException {
+    final ParseOptions options = new ParseOptions(configuration.getParseOptions());
+    options.setSpaceStrippingRule(new PhraseSpaceStrippingRule());
+    final NodeInfo document =
+        configuration.buildDocumentTree(new StreamSource(uri), options).getRootNode();
+    final NodeInfo root = document.iterateAxis(AxisInfo.CHILD,
+        n -> n.getNodeKind() == Type.ELEMENT).next();
+    final String version = root != null ? root.getAttributeValue("", "version") : null;
+    final Map<String, NodeInfo> phrases = new HashMap<>();
+    final AxisIterator iter = document.iterateAxis(AxisInfo.DESCENDANT,
+        n -> n.getNodeKind() == Type.ELEMENT && "phrase".equals(n.getLocalPart()));
+    NodeInfo phrase;
+    while ((phrase = iter.next()) != null) {
+      final String textId = phrase.getAttributeValue("", "textId");
+      if (textId != null) {
+        phrases.putIfAbsent(textId, phrase);
+      }
+    }
+    return new Entry(document, lastModified, phrases, version);
+  }
+
+  private static long lastModified(String uri) {
+    try {
+      final URI parsed = new URI(uri);
+      if ("file".equals(parsed.getScheme())) {
+        return new File(parsed).lastModified();
+      }
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      // not a local file
+    }
+    return 0L;
+  }
+
+  private PhraseIndex() {
+
+  }
+}
@@ -14,24 +14,38 @@
  */
 package io.fixprotocol.orchestra.transformers;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -43,7 +57,6 @@ import org.apache.logging.log4j.Logger;
 import org.purl.dc.elements._1.ObjectFactory;
 import org.purl.dc.elements._1.SimpleLiteral;
 import org.purl.dc.terms.ElementOrRefinementContainer;
-import io.fixprotocol._2024.orchestra.repository.Actors;
 import io.fixprotocol._2024.orchestra.repository.Categories;
 import io.fixprotocol._2024.orchestra.repository.CategoryType;
 import io.fixprotocol._2024.orchestra.repository.CodeSetType;
@@ -51,7 +64,6 @@ import io.fixprotocol._2024.orchestra.repository.CodeSets;
 import io.fixprotocol._2024.orchestra.repository.ComponentRefType;
 import io.fixprotocol._2024.orchestra.repository.ComponentType;
 import io.fixprotocol._2024.orchestra.repository.Components;
-import io.fixprotocol._2024.orchestra.repository.Datatypes;
 import io.fixprotocol._2024.orchestra.repository.FieldRefType;
 import io.fixprotocol._2024.orchestra.repository.FieldType;
 import io.fixprotocol._2024.orchestra.repository.Fields;
@@ -61,7 +73,7 @@ import io.fixprotocol._2024.orchestra.repository.Groups;
 import io.fixprotocol._2024.orchestra.repository.MessageType;
 import io.fixprotocol._2024.orchestra.repository.Messages;
 import io.fixprotocol._2024.orchestra.repository.Repository;
-import io.fixprotocol._2024.orchestra.repository.Sections;
+import io.fixprotocol.orchestra.repository.jaxb.RepositoryJAXBContext;
 
 /**
  * Selectively compresses an Orchestra file <br>
@@ -78,6 +90,11 @@ import io.fixprotocol._2024.orchestra.repository.Sections;
  * compressed).</li>
  * <li>Attributes of copied elements are unchanged.</li>
  * </ul>
+ * <p>
+ * In streaming mode, the input is read twice without building a full object graph. The first pass
+ * indexes references between messages, components and groups; the second copies the selected
+ * elements to the output as they are read, preserving their order and formatting.
+ * </p>
  *
  * @author Don Mendelson
  *
@@ -89,7 +106,10 @@ public class RepositoryCompressor {
     private String inputFile;
     private Predicate<MessageType> messagePredicate;
     private String outputFile;
+    private final Map<String, Predicate<MessageType>> outputs = new LinkedHashMap<>();
     private String logFile;
+    private boolean streaming = false;
+    private int threads = Runtime.getRuntime().availableProcessors();
 
     public RepositoryCompressor build() {
       return new RepositoryCompressor(this);
@@ -100,7 +120,7 @@ public class RepositoryCompressor {
       return this;
     }
 
-    Builder inputFile(String inputFile) {
+    public Builder inputFile(String inputFile) {
       this.inputFile = inputFile;
       return this;
     }
@@ -110,10 +130,103 @@ public class RepositoryCompressor {
       return this;
     }
 
+    /**
+     * Adds a named output. All outputs are written from a single read of the input.
+     *
+     * @param outputFile path of output file
+     * @param messagePredicate selects the messages to retain in this output
+     * @return this Builder
+     */
+    public Builder output(String outputFile, Predicate<MessageType> messagePredicate) {
+      this.outputs.put(outputFile, messagePredicate);
+      return this;
+    }
+
     Builder outputFile(String outputFile) {
       this.outputFile = outputFile;
       return this;
     }
+
+    /**
+     * @param threads maximum number of outputs to write concurrently
+     * @return this Builder
+     */
+    public Builder threads(int threads) {
+      this.threads = threads;
+      return this;
+    }
+
+    /**
+     * Selects two-pass streaming compression
+     *
+     * @param streaming if {@code true}, the repository is not unmarshalled as a whole
+     * @return this Builder
+     */
+    Builder streaming(boolean streaming) {
+      this.streaming = streaming;
+      return this;
+    }
+  }
+
+  /**
+   * Transitive closure of the fields, components and groups that a component or group contains
+   */
+  private static final class Dependencies {
+    final Set<BigInteger> componentIds = new HashSet<>();
+    final Set<BigInteger> fieldIds = new HashSet<>();
+    final Set<BigInteger> groupIds = new HashSet<>();
+    boolean isWalked = false;
+    // closures that were added while their members were still being walked, through a circular
+    // reference; this closure is incomplete unless the only one is itself
+    final Set<Dependencies> partial = new HashSet<>();
+
+    void addAll(Dependencies other) {
+      componentIds.addAll(other.componentIds);
+      fieldIds.addAll(other.fieldIds);
+      groupIds.addAll(other.groupIds);
+      if (!other.isWalked) {
+        partial.add(other);
+      } else {
+        partial.addAll(other.partial);
+      }
+    }
+
+    /**
+     * Marks the walk of members finished
+     *
+     * @return {@code true} if the closure is complete, so it may be reused
+     */
+    boolean walked() {
+      isWalked = true;
+      partial.remove(this);
+      return partial.isEmpty();
+    }
+  }
+
+  /**
+   * Messages selected for one output and everything they depend on
+   */
+  private static final class Selection {
+    final Set<String> codeSetNames = new HashSet<>();
+    final Dependencies dependencies = new Dependencies();
+    final List<MessageType> messages = new ArrayList<>();
+    BitSet messageOrdinals;
+    final String outputFile;
+    final Predicate<? super MessageType> predicate;
+
+    Selection(String outputFile, Predicate<? super MessageType> predicate) {
+      this.outputFile = outputFile;
+      this.predicate = predicate;
+    }
+  }
+
+  /**
+   * Writes one selection to its output
+   */
+  @FunctionalInterface
+  private interface SelectionWriter {
+    void write(Selection selection, OutputStream os)
+        throws IOException, JAXBException, XMLStreamException;
   }
 
   static class HasCategory implements Predicate<MessageType> {
@@ -207,6 +320,7 @@ public class RepositoryCompressor {
     }
   }
 
+  private static final String DC_NAMESPACE = "http://purl.org/dc/elements/1.1/";
   private static final Logger logger = LogManager.getLogger(RepositoryCompressor.class);
   static final IsCategoryInSection isCategoryInSection = new IsCategoryInSection();
 
@@ -225,6 +339,7 @@ public class RepositoryCompressor {
    * -n,--notcategory &lt;arg&gt; select messages except category
    * -o,--output &lt;arg&gt; path of output file
    * -s,--section &lt;arg&gt; select messages by section
+   * -t,--streaming compress in streaming mode
    * -x,--notsection &lt;arg&gt; select messages except section
    * </pre>
    *
@@ -257,6 +372,8 @@ public class RepositoryCompressor {
         .longOpt("notcategory").numberOfArgs(1).build());
     options.addOption(Option.builder("x").desc("select messages except section")
         .longOpt("notsection").numberOfArgs(1).build());
+    options.addOption(Option.builder("t").desc("compress in streaming mode")
+        .longOpt("streaming").build());
     options.addOption(Option.builder("?").desc("display usage").longOpt("help").build());
 
     final DefaultParser parser = new DefaultParser();
@@ -276,6 +393,7 @@ public class RepositoryCompressor {
 
       builder.inputFile = cmd.getOptionValue("i");
       builder.outputFile = cmd.getOptionValue("o");
+      builder.streaming = cmd.hasOption("t");
 
       if (cmd.hasOption("c")) {
         final String category = cmd.getOptionValue("c");
@@ -337,209 +455,570 @@ public class RepositoryCompressor {
     return m -> m.getFlow() != null;
   }
 
-  private final List<BigInteger> componentIdList = new ArrayList<>();
-  private List<ComponentType> componentList = new ArrayList<>();
-  private final List<BigInteger> fieldIdList = new ArrayList<>();
-  private final List<BigInteger> groupIdList = new ArrayList<>();
-  private List<GroupType> groupList;
+  private final Map<BigInteger, Dependencies> componentDependencies = new HashMap<>();
+  private final Map<BigInteger, ComponentType> componentMap = new HashMap<>();
+  private final Map<BigInteger, Dependencies> groupDependencies = new HashMap<>();
+  private final Map<BigInteger, GroupType> groupMap = new HashMap<>();
+  private final boolean streaming;
   private final String inputFile;
-  private final Predicate<MessageType> messagePredicate;
-  private final String outputFile;
+  private final Map<String, Predicate<MessageType>> outputs = new LinkedHashMap<>();
   private final File logFile;
+  private final int threads;
 
   protected RepositoryCompressor(Builder builder) {
     this.inputFile = builder.inputFile;
-    this.outputFile = builder.outputFile;
-    this.messagePredicate = builder.messagePredicate;
+    if (builder.outputFile != null && builder.messagePredicate != null) {
+      this.outputs.put(builder.outputFile, builder.messagePredicate);
+    }
+    this.outputs.putAll(builder.outputs);
     this.logFile = builder.logFile != null ? new File(builder.logFile) : null;
+    this.streaming = builder.streaming;
+    this.threads = Math.max(1, builder.threads);
   }
 
+  /**
+   * Writes every output
+   *
+   * <p>
+   * The input is read and its dependencies indexed once, regardless of the number of outputs.
+   * Outputs are then written concurrently.
+   * </p>
+   *
+   * @return Returns {@code true} if all outputs were written
+   */
   public boolean compress() {
+    if (outputs.isEmpty()) {
+      logger.fatal("RepositoryCompressor failed; no output specified");
+      return false;
+    }
+    final List<Selection> selections = new ArrayList<>(outputs.size());
+    outputs.forEach((outputFile, predicate) -> selections.add(new Selection(outputFile, predicate)));
 
-    try (InputStream is = new FileInputStream(this.inputFile);
-        OutputStream os = new FileOutputStream(this.outputFile)) {
-      return compress(is, os, this.messagePredicate);
-    } catch (IOException e) {
-      // TODO Auto-generated catch block
-      e.printStackTrace();
-
+    try {
+      if (streaming) {
+        return compressStreaming(selections);
+      } else {
+        return compress(selections);
+      }
+    } catch (IOException | JAXBException | XMLStreamException e) {
+      logger.fatal("RepositoryCompressor failed", e);
       return false;
     }
   }
 
-  private boolean compress(InputStream is, OutputStream os,
-      Predicate<? super MessageType> messagePredicate) {
-    try {
-      final Repository inRepository = unmarshal(is);
-      final Categories categories = inRepository.getCategories();
+  private boolean compress(List<Selection> selections) throws IOException, JAXBException {
+    final Repository inRepository;
+    try (InputStream is = new FileInputStream(this.inputFile)) {
+      inRepository = unmarshal(is);
+    }
+    final Categories categories = inRepository.getCategories();
+    if (categories != null) {
       isCategoryInSection.setCategories(categories.getCategory());
-      final Repository outRepository = new Repository();
-      inRepository.copyTo(null, outRepository, AttributeCopyStrategy.INSTANCE);
-
-      final ElementOrRefinementContainer metadata =
-          (ElementOrRefinementContainer) inRepository.getMetadata().clone();
-      final List<JAXBElement<SimpleLiteral>> literals = metadata.getAny();
-      final ObjectFactory objectFactory = new ObjectFactory();
-      final SimpleLiteral contributor = new SimpleLiteral();
-      contributor.getContent().add("RepositoryCompressor");
-      literals.add(objectFactory.createContributor(contributor));
-      outRepository.setMetadata(metadata);
-
-      if (categories != null) {
-        outRepository.setCategories((Categories) categories.clone());
-      }
-      final Sections sections = inRepository.getSections();
-      if (sections != null) {
-        outRepository.setSections((Sections) sections.clone());
-      }
-      final Datatypes datatypes = inRepository.getDatatypes();
-      if (datatypes != null) {
-        outRepository.setDatatypes((Datatypes) datatypes.clone());
-      }
-      final Actors actors = inRepository.getActors();
-      if (actors != null) {
-        outRepository.setActors((Actors) actors.clone());
+    }
+    final Components components = inRepository.getComponents();
+    if (components != null) {
+      components.getComponent().forEach(c -> componentMap.putIfAbsent(c.getId(), c));
+    }
+    final Groups groups = inRepository.getGroups();
+    if (groups != null) {
+      groups.getGroup().forEach(g -> groupMap.putIfAbsent(g.getId(), g));
+    }
+    final Messages messages = inRepository.getMessages();
+    final List<MessageType> messageList =
+        messages != null ? messages.getMessage() : Collections.emptyList();
+
+    // dependency closures are memoized, so they are walked once for all selections
+    for (final Selection selection : selections) {
+      messageList.stream().filter(selection.predicate).forEach(selection.messages::add);
+      selection.messages.forEach(m -> walk(m.getStructure().getComponentRefOrGroupRefOrFieldRef(),
+          selection.dependencies));
+    }
+
+    return writeAll(selections,
+        (selection, os) -> marshal(selectRepository(inRepository, selection), os));
+  }
+
+  private boolean compressStreaming(List<Selection> selections)
+      throws IOException, JAXBException, XMLStreamException {
+    final List<MessageType> messageList = new ArrayList<>();
+    final Map<BigInteger, String> fieldTypes = new HashMap<>();
+    try (InputStream is = new FileInputStream(this.inputFile)) {
+      indexRepository(is, messageList, fieldTypes);
+    }
+
+    for (final Selection selection : selections) {
+      selection.messageOrdinals = new BitSet(messageList.size());
+      for (int i = 0; i < messageList.size(); i++) {
+        final MessageType message = messageList.get(i);
+        if (selection.predicate.test(message)) {
+          selection.messageOrdinals.set(i);
+          if (message.getStructure() != null) {
+            walk(message.getStructure().getComponentRefOrGroupRefOrFieldRef(),
+                selection.dependencies);
+          }
+        }
       }
-      final Components components = inRepository.getComponents();
-      if (components != null) {
-        final Components inComponents = (Components) components.clone();
-        componentList = inComponents.getComponent();
+      for (final BigInteger fieldId : selection.dependencies.fieldIds) {
+        final String type = fieldTypes.get(fieldId);
+        if (type != null) {
+          selection.codeSetNames.add(type);
+        }
       }
-      final Groups groups = inRepository.getGroups();
-      if (groups != null) {
-        final Groups inGroups = (Groups) groups.clone();
-        groupList = inGroups.getGroup();
+    }
+
+    return writeAll(selections, (selection, os) -> {
+      try (InputStream is = new FileInputStream(this.inputFile)) {
+        copySelected(is, os, selection);
       }
+    });
+  }
 
+  /**
+   * Builds an output repository from the elements of the input that a selection retains. Retained
+   * elements are shared with the input and with other outputs rather than copied; they are only
+   * read when marshalled.
+   */
+  private Repository selectRepository(Repository inRepository, Selection selection) {
+    final Repository outRepository = new Repository();
+    outRepository.setName(inRepository.getName());
+    outRepository.setVersion(inRepository.getVersion());
+    outRepository.setGuid(inRepository.getGuid());
+    outRepository.setSpecUrl(inRepository.getSpecUrl());
+    outRepository.setNamespace(inRepository.getNamespace());
+    // absent, the schema default is returned; it is not written out
+    final String expressionLanguage = inRepository.getExpressionLanguage();
+    if (!expressionLanguage.equals(outRepository.getExpressionLanguage())) {
+      outRepository.setExpressionLanguage(expressionLanguage);
+    }
 
-      final Messages messages = inRepository.getMessages();
-      final List<MessageType> messageList;
-      if (messages != null) {
-        final Messages inMessages = (Messages) messages.clone();
-        messageList = inMessages.getMessage();
-      } else {
-        messageList = Collections.emptyList();
+    final ElementOrRefinementContainer metadata = new ElementOrRefinementContainer();
+    final List<JAXBElement<SimpleLiteral>> literals = metadata.getAny();
+    if (inRepository.getMetadata() != null) {
+      literals.addAll(inRepository.getMetadata().getAny());
+    }
+    final ObjectFactory objectFactory = new ObjectFactory();
+    final SimpleLiteral contributor = new SimpleLiteral();
+    contributor.getContent().add("RepositoryCompressor");
+    literals.add(objectFactory.createContributor(contributor));
+    outRepository.setMetadata(metadata);
+
+    outRepository.setCategories(inRepository.getCategories());
+    outRepository.setSections(inRepository.getSections());
+    outRepository.setDatatypes(inRepository.getDatatypes());
+    outRepository.setActors(inRepository.getActors());
+
+    final Set<BigInteger> fieldIds = selection.dependencies.fieldIds;
+    final Set<BigInteger> componentIds = selection.dependencies.componentIds;
+    final Set<BigInteger> groupIds = selection.dependencies.groupIds;
+
+    final List<FieldType> fieldsWithFlow = inRepository.getFields().getField().stream()
+        .filter(f -> fieldIds.contains(f.getId())).collect(Collectors.toList());
+    final Fields outFields = new Fields();
+    outFields.getField().addAll(fieldsWithFlow);
+    outRepository.setFields(outFields);
+
+    final Set<String> typeSet = fieldsWithFlow.stream()
+        .map(f -> f.getCodeSet() != null ? f.getCodeSet() : f.getType())
+        .collect(Collectors.toSet());
+    final List<CodeSetType> codeSetsWithFlow = inRepository.getCodeSets().getCodeSet().stream()
+        .filter(cs -> typeSet.contains(cs.getName())).collect(Collectors.toList());
+    final CodeSets outCodeSets = new CodeSets();
+    outCodeSets.getCodeSet().addAll(codeSetsWithFlow);
+    outRepository.setCodeSets(outCodeSets);
+
+    final Components outComponents = new Components();
+    if (inRepository.getComponents() != null) {
+      inRepository.getComponents().getComponent().stream()
+          .filter(c -> componentIds.contains(c.getId()))
+          .forEach(outComponents.getComponent()::add);
+    }
+    outRepository.setComponents(outComponents);
+
+    final Groups outGroups = new Groups();
+    if (inRepository.getGroups() != null) {
+      inRepository.getGroups().getGroup().stream().filter(g -> groupIds.contains(g.getId()))
+          .forEach(outGroups.getGroup()::add);
+    }
+    outRepository.setGroups(outGroups);
+
+    final Messages outMessages = new Messages();
+    outMessages.getMessage().addAll(selection.messages);
+    outRepository.setMessages(outMessages);
+    return outRepository;
+  }
+
+  /**
+   * Writes selections to their output files concurrently
+   *
+   * @return Returns {@code true} if every output was written
+   */
+  private boolean writeAll(List<Selection> selections, SelectionWriter selectionWriter) {
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(threads, selections.size()));
+    try {
+      final List<Future<Boolean>> futures = new ArrayList<>(selections.size());
+      for (final Selection selection : selections) {
+        futures.add(executor.submit(() -> {
+          try (OutputStream os = new FileOutputStream(selection.outputFile)) {
+            selectionWriter.write(selection, os);
+            return true;
+          } catch (IOException | JAXBException | XMLStreamException e) {
+            logger.fatal("RepositoryCompressor failed to write {}", selection.outputFile, e);
+            return false;
+          }
+        }));
       }
-      final List<MessageType> filteredMessages =
-          messageList.stream().filter(messagePredicate).collect(Collectors.toList());
-      filteredMessages.forEach(m -> walk(m.getStructure().getComponentRefOrGroupRefOrFieldRef()));
-
-      final List<BigInteger> distinctFieldIds =
-          fieldIdList.stream().distinct().collect(Collectors.toList());
-      final Fields inFields = (Fields) inRepository.getFields().clone();
-      final List<FieldType> fieldsWithFlow = inFields.getField().stream()
-          .filter(f -> distinctFieldIds.contains(f.getId())).collect(Collectors.toList());
-      final Fields outFields = new Fields();
-      outFields.getField().addAll(fieldsWithFlow);
-      outRepository.setFields(outFields);
-
-      final List<String> typeList =
-          fieldsWithFlow.stream().map(FieldType::getType).distinct().collect(Collectors.toList());
-      final CodeSets inCodeSets = (CodeSets) inRepository.getCodeSets().clone();
-      final List<CodeSetType> codeSetsWithFlow = inCodeSets.getCodeSet().stream()
-          .filter(cs -> typeList.contains(cs.getName())).collect(Collectors.toList());
-      final CodeSets outCodeSets = new CodeSets();
-      outCodeSets.getCodeSet().addAll(codeSetsWithFlow);
-      outRepository.setCodeSets(outCodeSets);
-
-      final List<BigInteger> distinctComponentsIds =
-          componentIdList.stream().distinct().collect(Collectors.toList());
-      final List<ComponentType> componentsWithFlow = componentList.stream()
-          .filter(c -> distinctComponentsIds.contains(c.getId())).collect(Collectors.toList());
-      final Components outComponents = new Components();
-      outComponents.getComponent().addAll(componentsWithFlow);
-      outRepository.setComponents(outComponents);
-
-      final List<BigInteger> distinctGroupIds =
-          groupIdList.stream().distinct().collect(Collectors.toList());
-      final List<GroupType> groupWithFlow = groupList.stream()
-          .filter(c -> distinctGroupIds.contains(c.getId())).collect(Collectors.toList());
-      final Groups outGroups = new Groups();
-      outGroups.getGroup().addAll(groupWithFlow);
-      outRepository.setGroups(outGroups);
-
-      final Messages outMessages = new Messages();
-      outMessages.getMessage().addAll(filteredMessages);
-      outRepository.setMessages(outMessages);
-
-      marshal(outRepository, os);
-      return true;
-    } catch (JAXBException e) {
-      logger.fatal("RepositoryCompressor failed", e);
+      boolean isWritten = true;
+      for (final Future<Boolean> future : futures) {
+        isWritten &= future.get();
+      }
+      return isWritten;
+    } catch (final ExecutionException e) {
+      logger.fatal("RepositoryCompressor failed", e.getCause());
       return false;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.fatal("RepositoryCompressor interrupted");
+      return false;
+    } finally {
+      executor.shutdown();
     }
   }
 
-  private ComponentType getComponent(BigInteger id) {
-    for (final ComponentType component : componentList) {
-      if (component.getId().equals(id)) {
-        return component;
+  /**
+   * Copies the input to the output, omitting fields, code sets, components, groups and messages
+   * that were not selected, and adds this application as a contributor to the metadata
+   */
+  private void copySelected(InputStream is, OutputStream os, Selection selection)
+      throws XMLStreamException, IOException {
+    final XMLStreamReader reader = newInputFactory().createXMLStreamReader(is);
+    final String encoding =
+        reader.getCharacterEncodingScheme() != null ? reader.getCharacterEncodingScheme() : "UTF-8";
+    try (MarkupWriter writer = new MarkupWriter(
+        new BufferedWriter(new OutputStreamWriter(os, encoding)))) {
+      writer.declaration(reader.getVersion(), encoding,
+          reader.standaloneSet() ? reader.isStandalone() : null);
+      writer.text(System.lineSeparator());
+      // whitespace is held back until it is known whether the next element is copied
+      final StringBuilder pendingWhitespace = new StringBuilder();
+      String repositoryNamespace = null;
+      String dcPrefix = null;
+      boolean isInMetadata = false;
+      String metadataIndent = null;
+      int depth = 0;
+      int messageOrdinal = 0;
+
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            depth++;
+            final boolean isRepositoryElement =
+                depth == 1 || reader.getNamespaceURI().equals(repositoryNamespace);
+            if (depth == 1) {
+              repositoryNamespace = reader.getNamespaceURI();
+            } else if (depth == 3 && isRepositoryElement) {
+              final boolean isMessage = "message".equals(reader.getLocalName());
+              boolean isSelected = true;
+              if (isMessage) {
+                isSelected = selection.messageOrdinals.get(messageOrdinal);
+                messageOrdinal++;
+              } else {
+                isSelected = isSelected(reader, selection);
+              }
+              if (!isSelected) {
+                skipElement(reader);
+                depth--;
+                pendingWhitespace.setLength(0);
+                break;
+              }
+            } else if (depth == 3 && isInMetadata) {
+              // indent the added contributor like the last child of metadata
+              metadataIndent = pendingWhitespace.toString();
+            }
+            writer.text(pendingWhitespace.toString());
+            pendingWhitespace.setLength(0);
+            writer.startElement(reader.getPrefix(), reader.getLocalName());
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+              writer.namespace(reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+              writer.attribute(reader.getAttributePrefix(i), reader.getAttributeLocalName(i),
+                  reader.getAttributeValue(i));
+            }
+            if (depth == 2 && isRepositoryElement && "metadata".equals(reader.getLocalName())) {
+              isInMetadata = true;
+              dcPrefix = reader.getNamespaceContext().getPrefix(DC_NAMESPACE);
+            }
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            if (depth == 2 && isInMetadata) {
+              writeContributor(writer, dcPrefix, metadataIndent);
+              isInMetadata = false;
+            }
+            writer.text(pendingWhitespace.toString());
+            pendingWhitespace.setLength(0);
+            writer.endElement(reader.getPrefix(), reader.getLocalName());
+            depth--;
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.SPACE:
+            if (reader.isWhiteSpace()) {
+              pendingWhitespace.append(reader.getText());
+            } else {
+              writer.text(pendingWhitespace.toString());
+              pendingWhitespace.setLength(0);
+              writer.text(reader.getText());
+            }
+            break;
+          case XMLStreamConstants.CDATA:
+            writer.text(pendingWhitespace.toString());
+            pendingWhitespace.setLength(0);
+            writer.cdata(reader.getText());
+            break;
+          case XMLStreamConstants.COMMENT:
+            writer.text(pendingWhitespace.toString());
+            pendingWhitespace.setLength(0);
+            writer.comment(reader.getText());
+            break;
+          case XMLStreamConstants.PROCESSING_INSTRUCTION:
+            writer.text(pendingWhitespace.toString());
+            pendingWhitespace.setLength(0);
+            writer.processingInstruction(reader.getPITarget(), reader.getPIData());
+            break;
+          case XMLStreamConstants.END_DOCUMENT:
+            writer.text(System.lineSeparator());
+            break;
+          default:
+            break;
+        }
       }
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Reads the input without unmarshalling it as a whole. Components, groups and messages are
+   * unmarshalled one at a time and indexed without their documentation; only ids and types of
+   * fields and the names and sections of categories are retained.
+   */
+  private void indexRepository(InputStream is, List<MessageType> messageList,
+      Map<BigInteger, String> fieldTypes) throws JAXBException, XMLStreamException {
+    final Unmarshaller jaxbUnmarshaller = RepositoryJAXBContext.borrowUnmarshaller();
+    final XMLStreamReader reader = newInputFactory().createXMLStreamReader(is);
+    final List<CategoryType> categories = new ArrayList<>();
+    try {
+      String repositoryNamespace = null;
+      int depth = 0;
+      int eventType = reader.getEventType();
+      while (true) {
+        if (eventType == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+          if (depth == 1) {
+            repositoryNamespace = reader.getNamespaceURI();
+          } else if (depth == 3 && reader.getNamespaceURI().equals(repositoryNamespace)) {
+            boolean isConsumed = true;
+            switch (reader.getLocalName()) {
+              case "component":
+                final ComponentType component =
+                    jaxbUnmarshaller.unmarshal(reader, ComponentType.class).getValue();
+                component.setAnnotation(null);
+                componentMap.putIfAbsent(component.getId(), component);
+                break;
+              case "group":
+                final GroupType group = jaxbUnmarshaller.unmarshal(reader, GroupType.class).getValue();
+                group.setAnnotation(null);
+                groupMap.putIfAbsent(group.getId(), group);
+                break;
+              case "message":
+                final MessageType message =
+                    jaxbUnmarshaller.unmarshal(reader, MessageType.class).getValue();
+                message.setAnnotation(null);
+                message.setResponses(null);
+                messageList.add(message);
+                break;
+              case "field":
+                // a code set is referenced by attribute codeSet, or by type in older versions
+                final String codeSet = reader.getAttributeValue(null, "codeSet");
+                fieldTypes.putIfAbsent(new BigInteger(reader.getAttributeValue(null, "id")),
+                    codeSet != null ? codeSet : reader.getAttributeValue(null, "type"));
+                isConsumed = false;
+                break;
+              case "category":
+                final CategoryType category = new CategoryType();
+                category.setName(reader.getAttributeValue(null, "name"));
+                category.setSection(reader.getAttributeValue(null, "section"));
+                categories.add(category);
+                isConsumed = false;
+                break;
+              default:
+                isConsumed = false;
+            }
+            if (isConsumed) {
+              // the unmarshaller leaves the reader at the event following the element
+              depth--;
+              eventType = reader.getEventType();
+              continue;
+            }
+          }
+        } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+          depth--;
+        }
+        if (!reader.hasNext()) {
+          break;
+        }
+        eventType = reader.next();
+      }
+    } finally {
+      reader.close();
+      RepositoryJAXBContext.returnUnmarshaller(jaxbUnmarshaller);
+    }
+    isCategoryInSection.setCategories(categories);
+  }
+
+  private static boolean isSelected(XMLStreamReader reader, Selection selection) {
+    final Dependencies selected = selection.dependencies;
+    switch (reader.getLocalName()) {
+      case "field":
+        return selected.fieldIds.contains(idOf(reader));
+      case "codeSet":
+        return selection.codeSetNames.contains(reader.getAttributeValue(null, "name"));
+      case "component":
+        return selected.componentIds.contains(idOf(reader));
+      case "group":
+        return selected.groupIds.contains(idOf(reader));
+      default:
+        return true;
     }
-    return null;
   }
 
-  private List<Object> getComponentMembers(BigInteger id) {
-    final ComponentType component = getComponent(id);
-    if (component != null) {
-      return component.getComponentRefOrGroupRefOrFieldRef();
-    } else {
+  private static BigInteger idOf(XMLStreamReader reader) {
+    final String id = reader.getAttributeValue(null, "id");
+    try {
+      return id != null ? new BigInteger(id) : null;
+    } catch (final NumberFormatException e) {
       return null;
     }
   }
 
-  private GroupType getGroup(BigInteger id) {
-    for (final GroupType group : groupList) {
-      if (group.getId().equals(id)) {
-        return group;
+  private static XMLInputFactory newInputFactory() {
+    final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return inputFactory;
+  }
+
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int level = 1;
+    while (level > 0) {
+      final int eventType = reader.next();
+      if (eventType == XMLStreamConstants.START_ELEMENT) {
+        level++;
+      } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+        level--;
       }
     }
-    return null;
   }
 
-  private List<Object> getGroupMembers(BigInteger id) {
-    final GroupType component = getGroup(id);
-    if (component != null) {
-      return component.getComponentRefOrGroupRefOrFieldRef();
-    } else {
-      return null;
+  private static void writeContributor(MarkupWriter writer, String dcPrefix, String indent)
+      throws IOException {
+    if (indent != null) {
+      writer.text(indent);
+    }
+    final String prefix = dcPrefix != null ? dcPrefix : "dc";
+    writer.startElement(prefix, "contributor");
+    if (dcPrefix == null) {
+      writer.namespace(prefix, DC_NAMESPACE);
+    }
+    writer.text("RepositoryCompressor");
+    writer.endElement(prefix, "contributor");
+  }
+
+  private ComponentType getComponent(BigInteger id) {
+    return componentMap.get(id);
+  }
+
+  /**
+   * Returns the dependencies of a component, walking its members only the first time it is
+   * referenced
+   *
+   * <p>
+   * A circular reference is logged as an error. A component whose closure was taken while an
+   * enclosing component or group was still being walked is not kept, so it is walked again when it
+   * is next referenced, once that closure is complete.
+   * </p>
+   */
+  private Dependencies getComponentDependencies(BigInteger id) {
+    Dependencies dependencies = componentDependencies.get(id);
+    if (dependencies == null) {
+      dependencies = new Dependencies();
+      // registered before the walk so that a circular reference terminates
+      componentDependencies.put(id, dependencies);
+      final ComponentType component = getComponent(id);
+      if (component != null) {
+        walk(component.getComponentRefOrGroupRefOrFieldRef(), dependencies);
+      } else {
+        logger.error("Component missing for componentRef; ID={}", id.intValue());
+      }
+      if (!dependencies.walked()) {
+        componentDependencies.remove(id);
+      }
+    } else if (!dependencies.isWalked) {
+      logger.error("Circular reference to component; ID={}", id.intValue());
     }
+    return dependencies;
+  }
+
+  private GroupType getGroup(BigInteger id) {
+    return groupMap.get(id);
+  }
+
+  /**
+   * Returns the dependencies of a group, including its NumInGroup field, walking its members only
+   * the first time it is referenced. Circular references are handled as for components.
+   */
+  private Dependencies getGroupDependencies(BigInteger id) {
+    Dependencies dependencies = groupDependencies.get(id);
+    if (dependencies == null) {
+      dependencies = new Dependencies();
+      // registered before the walk so that a circular reference terminates
+      groupDependencies.put(id, dependencies);
+      final GroupType group = getGroup(id);
+      if (group != null) {
+        dependencies.fieldIds.add(group.getNumInGroup().getId());
+        walk(group.getComponentRefOrGroupRefOrFieldRef(), dependencies);
+      } else {
+        logger.error("Group missing for groupRef; ID={}", id.intValue());
+      }
+      if (!dependencies.walked()) {
+        groupDependencies.remove(id);
+      }
+    } else if (!dependencies.isWalked) {
+      logger.error("Circular reference to group; ID={}", id.intValue());
+    }
+    return dependencies;
   }
 
   private void marshal(Repository jaxbElement, OutputStream os) throws JAXBException {
-    final JAXBContext jaxbContext = JAXBContext.newInstance(Repository.class);
-    final Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-    jaxbMarshaller.setProperty("jaxb.formatted.output", true);
-    jaxbMarshaller.marshal(jaxbElement, os);
+    RepositoryJAXBContext.marshal(jaxbElement, os, true);
   }
 
   private Repository unmarshal(InputStream is) throws JAXBException {
-    final JAXBContext jaxbContext = JAXBContext.newInstance(Repository.class);
-    final Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-    return (Repository) jaxbUnmarshaller.unmarshal(is);
+    return RepositoryJAXBContext.unmarshal(is);
   }
 
-  private void walk(List<Object> list) {
+  private void walk(List<Object> list, Dependencies dependencies) {
     for (final Object obj : list) {
       if (obj instanceof GroupRefType) {
         final GroupRefType groupRef = (GroupRefType) obj;
-        final GroupType group = getGroup(groupRef.getId());
-        if (group == null) {
-          logger.error("Group missing for groupRef; ID={}", groupRef.getId().intValue());
-          return;
-        }
-        fieldIdList.add(group.getNumInGroup().getId());
-        groupIdList.add(groupRef.getId());
-        // recursion on referenced component
-        walk(getGroupMembers(groupRef.getId()));
+        dependencies.groupIds.add(groupRef.getId());
+        dependencies.addAll(getGroupDependencies(groupRef.getId()));
       } else if (obj instanceof ComponentRefType) {
         final ComponentRefType componentRef = (ComponentRefType) obj;
-        componentIdList.add(componentRef.getId());
-        // recursion on referenced component
-        walk(getComponentMembers(componentRef.getId()));
+        dependencies.componentIds.add(componentRef.getId());
+        dependencies.addAll(getComponentDependencies(componentRef.getId()));
       } else if (obj instanceof FieldRefType) {
         final FieldRefType fieldRef = (FieldRefType) obj;
-        fieldIdList.add(fieldRef.getId());
+        dependencies.fieldIds.add(fieldRef.getId());
       }
     }
   }
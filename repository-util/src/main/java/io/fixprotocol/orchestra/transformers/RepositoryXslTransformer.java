@@ -1,13 +1,20 @@
 package io.fixprotocol.orchestra.transformers;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import net.sf.saxon.TransformerFactoryImpl;
 
 /**
  * Invokes XSL Transform May be used to convert FIX Repository 2010 Edition unified repositories to
@@ -33,14 +40,88 @@ public class RepositoryXslTransformer {
 
   public void transform(File xsltFile, File inputXml, File outputXml, String[] parameters)
       throws TransformerException {
-    outputXml.getParentFile().mkdirs();
+    final Templates templates = TemplatesCache.getTemplates(xsltFile);
+    transform(templates, inputXml, outputXml, parameters);
+  }
+
+  /**
+   * Transforms many files with one compiled stylesheet. Files are transformed concurrently, each
+   * by its own {@code Transformer}.
+   *
+   * @param xsltFile XSLT file
+   * @param files map of input file to output file
+   * @param parameters stylesheet parameters in the form {@code name=value}
+   * @throws TransformerException if the stylesheet cannot be compiled or any file fails to
+   *         transform
+   */
+  public void transform(File xsltFile, Map<File, File> files, String[] parameters)
+      throws TransformerException {
+    final Templates templates = TemplatesCache.getTemplates(xsltFile);
+    final ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, files.size())));
+    try {
+      final List<Future<?>> futures = new ArrayList<>(files.size());
+      for (final Map.Entry<File, File> entry : files.entrySet()) {
+        futures.add(executor.submit(() -> {
+          transform(templates, entry.getKey(), entry.getValue(), parameters);
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof TransformerException) {
+        throw (TransformerException) cause;
+      } else {
+        throw new TransformerException(cause);
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TransformerException(e);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Transforms a file, or every XML file in a directory if the input is a directory
+   *
+   * @param args XSLT file, input file or directory, output file or directory, then parameters
+   * @throws TransformerException if an unrecoverable error occurs during a transformation
+   */
+  public void transform(String[] args) throws TransformerException {
+    final File xsltFile = new File(args[0]);
+    final File inputXml = new File(args[1]);
+    final File outputXml = new File(args[2]);
+    final String[] parameters = Arrays.copyOfRange(args, 3, args.length);
+    if (inputXml.isDirectory()) {
+      final File[] inputFiles = inputXml.listFiles((dir, name) -> name.endsWith(".xml"));
+      final Map<File, File> files = new LinkedHashMap<>();
+      if (inputFiles != null) {
+        Arrays.sort(inputFiles);
+        for (final File inputFile : inputFiles) {
+          files.put(inputFile, new File(outputXml, inputFile.getName()));
+        }
+      }
+      transform(xsltFile, files, parameters);
+    } else {
+      transform(xsltFile, inputXml, outputXml, parameters);
+    }
+  }
+
+  private void transform(Templates templates, File inputXml, File outputXml, String[] parameters)
+      throws TransformerException {
+    final File parentFile = outputXml.getAbsoluteFile().getParentFile();
+    if (parentFile != null) {
+      parentFile.mkdirs();
+    }
 
     final Source xmlSource = new javax.xml.transform.stream.StreamSource(inputXml);
-    final Source xsltSource = new javax.xml.transform.stream.StreamSource(xsltFile);
     final Result result = new javax.xml.transform.stream.StreamResult(outputXml);
 
-    final TransformerFactory transFact = new TransformerFactoryImpl();
-    final Transformer trans = transFact.newTransformer(xsltSource);
+    final Transformer trans = templates.newTransformer();
 
     for (String parameter : parameters) {
       final String[] parts = parameter.split("=");
@@ -49,12 +130,4 @@ public class RepositoryXslTransformer {
 
     trans.transform(xmlSource, result);
   }
-
-  public void transform(String[] args) throws TransformerException {
-    final File xsltFile = new File(args[0]);
-    final File inputXml = new File(args[1]);
-    final File outputXml = new File(args[2]);
-    final String[] parameters = Arrays.copyOfRange(args, 3, args.length);
-    transform(xsltFile, inputXml, outputXml, parameters);
-  }
 }
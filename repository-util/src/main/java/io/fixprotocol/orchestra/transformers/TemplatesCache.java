@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.transformers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
+import net.sf.saxon.Configuration;
+import net.sf.saxon.TransformerFactoryImpl;
+import net.sf.saxon.lib.FeatureKeys;
+
+/**
+ * Cache of compiled XSLT stylesheets
+ *
+ * <p>
+ * Stylesheets are keyed by URI and compiled once until they are modified. A {@link Templates} is
+ * thread-safe; each concurrent transformation should obtain its own
+ * {@link javax.xml.transform.Transformer} from it. The functions of {@link PhraseIndex} are
+ * available to cached stylesheets.
+ * </p>
+ */
+public final class TemplatesCache {
+
+  private static final class Entry {
+    final long lastModified;
+    final Templates templates;
+
+    Entry(long lastModified, Templates templates) {
+      this.lastModified = lastModified;
+      this.templates = templates;
+    }
+  }
+
+  private static final Map<String, Entry> cache = new ConcurrentHashMap<>();
+  private static final TransformerFactoryImpl transformerFactory = newTransformerFactory();
+
+  /**
+   * Returns a compiled stylesheet file
+   *
+   * @param stylesheet XSLT file
+   * @return compiled stylesheet
+   * @throws TransformerException if the stylesheet cannot be read or compiled
+   */
+  public static Templates getTemplates(File stylesheet) throws TransformerException {
+    try {
+      return getTemplates(stylesheet.toURI().toURL());
+    } catch (final MalformedURLException e) {
+      throw new TransformerConfigurationException(e);
+    }
+  }
+
+  /**
+   * Returns a compiled stylesheet resource
+   *
+   * @param resourceName name of an XSLT resource on the class path
+   * @return compiled stylesheet
+   * @throws TransformerException if the resource is not found or cannot be compiled
+   */
+  public static Templates getTemplates(String resourceName) throws TransformerException {
+    final URL url = TemplatesCache.class.getClassLoader().getResource(resourceName);
+    if (url == null) {
+      throw new TransformerConfigurationException("Stylesheet not found; " + resourceName);
+    }
+    return getTemplates(url);
+  }
+
+  /**
+   * Returns a compiled stylesheet. It is compiled again if it was modified since it was cached.
+   *
+   * @param stylesheet location of XSLT
+   * @return compiled stylesheet
+   * @throws TransformerException if the stylesheet cannot be read or compiled
+   */
+  public static Templates getTemplates(URL stylesheet) throws TransformerException {
+    final String uri = stylesheet.toExternalForm();
+    try {
+      final long lastModified = lastModified(stylesheet);
+      Entry entry = cache.get(uri);
+      if (entry == null || entry.lastModified != lastModified) {
+        synchronized (cache) {
+          entry = cache.get(uri);
+          if (entry == null || entry.lastModified != lastModified) {
+            try (InputStream is = stylesheet.openStream()) {
+              entry = new Entry(lastModified,
+                  transformerFactory.newTemplates(new StreamSource(is, uri)));
+            }
+            cache.put(uri, entry);
+          }
+        }
+      }
+      return entry.templates;
+    } catch (final IOException e) {
+      throw new TransformerConfigurationException("Failed to read stylesheet " + uri, e);
+    }
+  }
+
+  /**
+   * Returns the Saxon configuration of cached stylesheets
+   *
+   * @return configuration shared by cached stylesheets
+   */
+  static Configuration getConfiguration() {
+    return transformerFactory.getConfiguration();
+  }
+
+  private static long lastModified(URL url) throws IOException {
+    if ("file".equals(url.getProtocol())) {
+      try {
+        return new File(url.toURI()).lastModified();
+      } catch (final URISyntaxException e) {
+        throw new IOException(e);
+      }
+    }
+    // for a jar entry, its time in the archive
+    return url.openConnection().getLastModified();
+  }
+
+  private static TransformerFactoryImpl newTransformerFactory() {
+    final TransformerFactoryImpl factory = new TransformerFactoryImpl();
+    // repeated text and attribute values, such as versions, are stored once per source tree
+    factory.setAttribute(FeatureKeys.TREE_MODEL_NAME, "tinyTreeCondensed");
+    PhraseIndex.register(factory.getConfiguration());
+    return factory;
+  }
+
+  private TemplatesCache() {
+
+  }
+}
@@ -0,0 +1,873 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.transformers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.StreamFilter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import net.sf.saxon.om.AxisInfo;
+import net.sf.saxon.om.NodeInfo;
+import net.sf.saxon.trans.XPathException;
+import net.sf.saxon.tree.iter.AxisIterator;
+import net.sf.saxon.type.Type;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.purl.dc.elements._1.ObjectFactory;
+import org.purl.dc.elements._1.SimpleLiteral;
+import org.purl.dc.terms.ElementOrRefinementContainer;
+import io.fixprotocol._2010.orchestra.repository.Category;
+import io.fixprotocol._2010.orchestra.repository.Component;
+import io.fixprotocol._2010.orchestra.repository.ComponentRef;
+import io.fixprotocol._2010.orchestra.repository.Datatype;
+import io.fixprotocol._2010.orchestra.repository.Enum;
+import io.fixprotocol._2010.orchestra.repository.Field;
+import io.fixprotocol._2010.orchestra.repository.FieldRef;
+import io.fixprotocol._2010.orchestra.repository.Message;
+import io.fixprotocol._2010.orchestra.repository.MessageEntityT;
+import io.fixprotocol._2010.orchestra.repository.RepeatingGroup;
+import io.fixprotocol._2010.orchestra.repository.Section;
+import io.fixprotocol._2010.orchestra.repository.XML;
+import io.fixprotocol._2024.orchestra.repository.Annotation;
+import io.fixprotocol._2024.orchestra.repository.CatComponentTypeT;
+import io.fixprotocol._2024.orchestra.repository.CatIncludeFileT;
+import io.fixprotocol._2024.orchestra.repository.Categories;
+import io.fixprotocol._2024.orchestra.repository.CategoryType;
+import io.fixprotocol._2024.orchestra.repository.CodeSetType;
+import io.fixprotocol._2024.orchestra.repository.CodeSets;
+import io.fixprotocol._2024.orchestra.repository.CodeType;
+import io.fixprotocol._2024.orchestra.repository.ComponentRefType;
+import io.fixprotocol._2024.orchestra.repository.ComponentType;
+import io.fixprotocol._2024.orchestra.repository.Components;
+import io.fixprotocol._2024.orchestra.repository.Datatypes;
+import io.fixprotocol._2024.orchestra.repository.Documentation;
+import io.fixprotocol._2024.orchestra.repository.FieldRefType;
+import io.fixprotocol._2024.orchestra.repository.FieldType;
+import io.fixprotocol._2024.orchestra.repository.Fields;
+import io.fixprotocol._2024.orchestra.repository.GroupRefType;
+import io.fixprotocol._2024.orchestra.repository.GroupType;
+import io.fixprotocol._2024.orchestra.repository.Groups;
+import io.fixprotocol._2024.orchestra.repository.MappedDatatype;
+import io.fixprotocol._2024.orchestra.repository.MessageType;
+import io.fixprotocol._2024.orchestra.repository.Messages;
+import io.fixprotocol._2024.orchestra.repository.PresenceT;
+import io.fixprotocol._2024.orchestra.repository.Repository;
+import io.fixprotocol._2024.orchestra.repository.SectionType;
+import io.fixprotocol._2024.orchestra.repository.Sections;
+import io.fixprotocol._2024.orchestra.repository.UnionDataTypeT;
+import io.fixprotocol.orchestra.repository.jaxb.RepositoryJAXBContext;
+
+/**
+ * Converts a FIX Repository 2010 Edition unified repository to an Orchestra file without XSLT
+ *
+ * <p>
+ * The result corresponds to that of {@link Unified2OrchestraTransformer}, except that it conforms
+ * to the current Orchestra schema and documentation text is trimmed. The phrases file is read
+ * first into a {@link PhraseIndex}, which is shared by later conversions and transformations until
+ * the file is modified. The unified repository is then read in a single pass; only the {@code fix} element of
+ * the version named by the phrases file is unmarshalled, one datatype, field, component or message
+ * at a time. Phrases are joined to elements by index lookup.
+ * </p>
+ * <p>
+ * Repeating groups that are not defined by a component, as in FIX 4.2, cannot be referenced by
+ * id. They are left out of the result, and each one is logged as an error.
+ * </p>
+ */
+public class Unified2OrchestraConverter {
+
+  /**
+   * Diverts the text of datatype examples. Unmarshalled, they would be built as DOM elements, and
+   * the JAXB runtime looks up a new TransformerFactory for each of them.
+   */
+  private static final class ExampleFilter implements StreamFilter {
+    private StringBuilder example = null;
+    final List<String> examples = new ArrayList<>();
+    private boolean isInXml = false;
+
+    @Override
+    public boolean accept(XMLStreamReader reader) {
+      switch (reader.getEventType()) {
+        case XMLStreamConstants.START_ELEMENT:
+          if (example == null && "Example".equals(reader.getLocalName())) {
+            example = new StringBuilder();
+            return false;
+          } else if ("XML".equals(reader.getLocalName())) {
+            isInXml = true;
+          }
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          if (example != null && "Example".equals(reader.getLocalName())) {
+            // examples of a mapped datatype are not converted
+            if (!isInXml) {
+              examples.add(example.toString().trim());
+            }
+            example = null;
+            return false;
+          } else if ("XML".equals(reader.getLocalName())) {
+            isInXml = false;
+          }
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          if (example != null) {
+            example.append(reader.getText());
+          }
+          break;
+        default:
+          break;
+      }
+      return example == null;
+    }
+  }
+
+  private static final Logger logger = LogManager.getLogger(Unified2OrchestraConverter.class);
+  private static final XMLInputFactory inputFactory = newInputFactory();
+  private static volatile JAXBContext unifiedContext;
+
+  /**
+   *
+   * @param args command line arguments
+   *        <ol>
+   *        <li>Name of Unified Repository file to convert</li>
+   *        <li>Name of Repository phrases file</li>
+   *        <li>Name of Orchestra file to create</li>
+   *        <li>Name attribute of new Orchestra file</li>
+   *        <li>Version attribute of new Orchestra file</li>
+   *        </ol>
+   * @throws Exception if the conversion fails
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length < 5) {
+      System.out.println(
+          "Usage: Unified2OrchestraConverter <input_xml_file_path> <phrases_file_path> <output_file_path> <name> <version>");
+      return;
+    }
+    new Unified2OrchestraConverter().convert(new File(args[0]), new File(args[1]),
+        new File(args[2]), args[3], args[4]);
+  }
+
+  private static JAXBContext getUnifiedContext() throws JAXBException {
+    JAXBContext context = unifiedContext;
+    if (context == null) {
+      synchronized (Unified2OrchestraConverter.class) {
+        context = unifiedContext;
+        if (context == null) {
+          context = JAXBContext
+              .newInstance(io.fixprotocol._2010.orchestra.repository.ObjectFactory.class);
+          unifiedContext = context;
+        }
+      }
+    }
+    return context;
+  }
+
+  private static XMLInputFactory newInputFactory() {
+    final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    return inputFactory;
+  }
+
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int level = 1;
+    while (level > 0) {
+      final int eventType = reader.next();
+      if (eventType == XMLStreamConstants.START_ELEMENT) {
+        level++;
+      } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+        level--;
+      }
+    }
+  }
+
+  private final List<ComponentType> components = new ArrayList<>();
+  private final Map<BigInteger, Field> fieldsById = new LinkedHashMap<>();
+  private final List<GroupType> groups = new ArrayList<>();
+  private final Map<BigInteger, BigInteger> groupIdsByNumInGroup = new HashMap<>();
+  private Map<String, NodeInfo> phrases;
+  private final Set<BigInteger> repeatingComponentIds = new HashSet<>();
+  private final List<Component> unifiedComponents = new ArrayList<>();
+  private final List<Message> unifiedMessages = new ArrayList<>();
+
+  /**
+   * Converts a unified repository
+   *
+   * @param inputXml Unified Repository file to convert
+   * @param phrasesFile phrases file of the version to convert
+   * @param outputXml Orchestra file to create
+   * @param name name attribute of the new Orchestra file
+   * @param version version attribute of the new Orchestra file
+   * @throws IOException if a file cannot be read or written
+   * @throws JAXBException if an element cannot be unmarshalled or the result cannot be marshalled
+   * @throws XMLStreamException if an input file is not well-formed
+   */
+  public void convert(File inputXml, File phrasesFile, File outputXml, String name,
+      String version) throws IOException, JAXBException, XMLStreamException {
+    final File parentFile = outputXml.getAbsoluteFile().getParentFile();
+    if (parentFile != null) {
+      parentFile.mkdirs();
+    }
+    final PhraseIndex.Entry index;
+    try {
+      index = PhraseIndex.getIndex(phrasesFile);
+    } catch (final XPathException e) {
+      throw new IOException("Failed to read phrases file " + phrasesFile, e);
+    }
+    if (index.version == null) {
+      throw new IllegalArgumentException("No version in phrases file " + phrasesFile);
+    }
+    phrases = index.phrases;
+    final Repository repository;
+    try (InputStream is = new FileInputStream(inputXml)) {
+      repository = convert(is, index.version);
+    } finally {
+      components.clear();
+      fieldsById.clear();
+      groups.clear();
+      groupIdsByNumInGroup.clear();
+      repeatingComponentIds.clear();
+      unifiedComponents.clear();
+      unifiedMessages.clear();
+    }
+    repository.setName(name);
+    repository.setVersion(version);
+    try (OutputStream os = new FileOutputStream(outputXml)) {
+      RepositoryJAXBContext.marshal(repository, os, true);
+    }
+  }
+
+  private Annotation annotation(String textId) {
+    final Annotation annotation = new Annotation();
+    final List<Object> documentation = annotation.getDocumentationOrAppinfo();
+    final NodeInfo phrase = textId != null ? phrases.get(textId) : null;
+    if (phrase != null) {
+      final AxisIterator texts = phrase.iterateAxis(AxisInfo.CHILD,
+          n -> n.getNodeKind() == Type.ELEMENT && "text".equals(n.getLocalPart()));
+      NodeInfo text;
+      while ((text = texts.next()) != null) {
+        documentation.add(documentation(text.getAttributeValue("", "purpose"),
+            text.getStringValue().trim()));
+      }
+    }
+    return annotation;
+  }
+
+  private Repository convert(InputStream is, String fixVersion)
+      throws JAXBException, XMLStreamException {
+    final Repository repository = new Repository();
+    final Datatypes datatypes = new Datatypes();
+    final Categories categories = new Categories();
+    final Sections sections = new Sections();
+    final CodeSets codeSets = new CodeSets();
+    final Fields fields = new Fields();
+    String copyright = null;
+
+    final Unmarshaller unmarshaller = getUnifiedContext().createUnmarshaller();
+    final ExampleFilter exampleFilter = new ExampleFilter();
+    final XMLStreamReader reader =
+        inputFactory.createFilteredReader(inputFactory.createXMLStreamReader(is), exampleFilter);
+    try {
+      int depth = 0;
+      int eventType = reader.getEventType();
+      while (true) {
+        if (eventType == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+          final String localName = reader.getLocalName();
+          if (depth == 1) {
+            copyright = reader.getAttributeValue(null, "copyright");
+          } else if (depth == 2 && "fix".equals(localName)) {
+            if (fixVersion.equals(reader.getAttributeValue(null, "version"))) {
+              repository.setSpecUrl(reader.getAttributeValue(null, "specUrl"));
+            } else {
+              skipElement(reader);
+              depth--;
+            }
+          } else if (depth == 4) {
+            boolean isConsumed = true;
+            switch (localName) {
+              case "datatype":
+                exampleFilter.examples.clear();
+                final Datatype datatype = unmarshaller.unmarshal(reader, Datatype.class).getValue();
+                datatypes.getDatatype().add(convertDatatype(datatype, exampleFilter.examples));
+                break;
+              case "category":
+                final Category category = unmarshaller.unmarshal(reader, Category.class).getValue();
+                categories.getCategory().add(convertCategory(category));
+                break;
+              case "section":
+                final Section section = unmarshaller.unmarshal(reader, Section.class).getValue();
+                sections.getSection().add(convertSection(section));
+                break;
+              case "field":
+                final Field field = unmarshaller.unmarshal(reader, Field.class).getValue();
+                fieldsById.putIfAbsent(field.getId(), field);
+                if (!field.getEnum().isEmpty()) {
+                  codeSets.getCodeSet().add(convertCodeSet(field));
+                }
+                break;
+              case "component":
+                final Component component =
+                    unmarshaller.unmarshal(reader, Component.class).getValue();
+                if (isRepeating(component)) {
+                  repeatingComponentIds.add(component.getId());
+                }
+                for (final JAXBElement<? extends MessageEntityT> member : component
+                    .getMessageEntity()) {
+                  if (member.getValue() instanceof RepeatingGroup) {
+                    groupIdsByNumInGroup.put(member.getValue().getId(), component.getId());
+                  }
+                }
+                unifiedComponents.add(component);
+                break;
+              case "message":
+                unifiedMessages.add(unmarshaller.unmarshal(reader, Message.class).getValue());
+                break;
+              default:
+                isConsumed = false;
+            }
+            if (isConsumed) {
+              // the unmarshaller leaves the reader at the event following the element
+              depth--;
+              eventType = reader.getEventType();
+              continue;
+            }
+          }
+        } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+          depth--;
+        }
+        if (!reader.hasNext()) {
+          break;
+        }
+        eventType = reader.next();
+      }
+    } finally {
+      reader.close();
+    }
+
+    // references among fields, components and messages are resolved once all are read
+    final Map<String, Field> fieldsByName = new HashMap<>();
+    final Map<BigInteger, BigInteger> lengthIds = new HashMap<>();
+    for (final Field field : fieldsById.values()) {
+      fieldsByName.putIfAbsent(field.getName(), field);
+      if (field.getAssociatedDataTag() != null) {
+        lengthIds.putIfAbsent(field.getAssociatedDataTag(), field.getId());
+      }
+    }
+    for (final Field field : fieldsById.values()) {
+      fields.getField().add(convertField(field, fieldsByName, lengthIds));
+    }
+
+    for (final Component component : unifiedComponents) {
+      convertComponent(component);
+    }
+    final Messages messages = new Messages();
+    for (final Message message : unifiedMessages) {
+      messages.getMessage().add(convertMessage(message));
+    }
+
+    repository.setMetadata(metadata(copyright));
+    repository.setCodeSets(codeSets);
+    repository.setDatatypes(datatypes);
+    repository.setCategories(categories);
+    repository.setSections(sections);
+    repository.setFields(fields);
+    final Components outComponents = new Components();
+    outComponents.getComponent().addAll(components);
+    repository.setComponents(outComponents);
+    final Groups outGroups = new Groups();
+    outGroups.getGroup().addAll(groups);
+    repository.setGroups(outGroups);
+    repository.setMessages(messages);
+    return repository;
+  }
+
+  private CategoryType convertCategory(Category category) {
+    final CategoryType categoryType = new CategoryType();
+    categoryType.setName(category.getId());
+    categoryType.setFIXMLFileName(category.getFIXMLFileName());
+    if (category.getComponentType() != null) {
+      categoryType
+          .setComponentType(CatComponentTypeT.fromValue(category.getComponentType().value()));
+    }
+    if (category.getSection() != null) {
+      categoryType.setSection(category.getSection().value());
+    }
+    if (category.getIncludeFile() != null) {
+      categoryType.setIncludeFile(CatIncludeFileT.fromValue(category.getIncludeFile().value()));
+    }
+    copyPedigree(category, categoryType);
+    if (category.getTextId() != null) {
+      categoryType.setAnnotation(annotation(category.getTextId()));
+    }
+    return categoryType;
+  }
+
+  private CodeSetType convertCodeSet(Field field) {
+    final CodeSetType codeSet = new CodeSetType();
+    codeSet.setName(field.getName() + "CodeSet");
+    codeSet.setId(field.getId());
+    codeSet.setType(field.getType());
+    codeSet.setAdded(field.getAdded());
+    codeSet.setAddedEP(validEP(field.getAddedEP()));
+    codeSet.setUpdated(field.getUpdated());
+    codeSet.setUpdatedEP(field.getUpdatedEP());
+    codeSet.setDeprecated(field.getDeprecated());
+    codeSet.setDeprecatedEP(field.getDeprecatedEP());
+    final List<Enum> enums = field.getEnum();
+    for (int i = 0; i < enums.size(); i++) {
+      final Enum e = enums.get(i);
+      final CodeType code = new CodeType();
+      code.setName(e.getSymbolicName());
+      code.setId(new BigInteger(String.format("%s%03d", field.getId(), i + 1)));
+      code.setValue(e.getValue());
+      if (e.getSort() != null) {
+        code.setSort(new BigInteger(e.getSort()));
+      }
+      code.setGroup(e.getGroup());
+      copyPedigree(e, code);
+      if (e.getTextId() != null) {
+        code.setAnnotation(annotation(e.getTextId()));
+      }
+      codeSet.getCode().add(code);
+    }
+    if (field.getTextId() != null) {
+      codeSet.setAnnotation(annotation(field.getTextId()));
+    }
+    return codeSet;
+  }
+
+  private void convertComponent(Component component) {
+    if (isRepeating(component)) {
+      for (final JAXBElement<? extends MessageEntityT> member : component.getMessageEntity()) {
+        if (member.getValue() instanceof RepeatingGroup) {
+          groups.add(convertGroup(component, (RepeatingGroup) member.getValue()));
+        }
+      }
+    } else {
+      final ComponentType componentType = new ComponentType();
+      componentType.setId(component.getId());
+      componentType.setName(component.getName());
+      componentType.setCategory(component.getCategory());
+      componentType.setAbbrName(component.getAbbrName());
+      copyPedigree(component, componentType);
+      convertMembers(component.getMessageEntity(),
+          componentType.getComponentRefOrGroupRefOrFieldRef());
+      if (component.getTextId() != null) {
+        componentType.setAnnotation(annotation(component.getTextId()));
+      }
+      components.add(componentType);
+    }
+  }
+
+  private io.fixprotocol._2024.orchestra.repository.Datatype convertDatatype(Datatype datatype,
+      List<String> examples) {
+    final io.fixprotocol._2024.orchestra.repository.Datatype datatypeType =
+        new io.fixprotocol._2024.orchestra.repository.Datatype();
+    datatypeType.setName(datatype.getName());
+    datatypeType.setBaseType(datatype.getBaseType());
+    copyPedigree(datatype, datatypeType);
+    final XML xml = datatype.getXML();
+    if (xml != null) {
+      final MappedDatatype mappedDatatype = new MappedDatatype();
+      mappedDatatype.setStandard("XML");
+      if (xml.getBuiltin() != null) {
+        mappedDatatype.setBuiltin("1".equals(xml.getBuiltin()) || "true".equals(xml.getBuiltin()));
+      }
+      mappedDatatype.setBase(xml.getBase());
+      mappedDatatype.setPattern(xml.getPattern());
+      mappedDatatype.setMinInclusive(xml.getMinInclusive());
+      if (xml.getTextId() != null) {
+        mappedDatatype.setAnnotation(annotation(xml.getTextId()));
+      }
+      datatypeType.getMappedDatatype().add(mappedDatatype);
+    }
+    final Annotation annotation = annotation(datatype.getTextId());
+    for (final String example : examples) {
+      annotation.getDocumentationOrAppinfo().add(documentation("EXAMPLE", example));
+    }
+    datatypeType.setAnnotation(annotation);
+    return datatypeType;
+  }
+
+  private FieldType convertField(Field field, Map<String, Field> fieldsByName,
+      Map<BigInteger, BigInteger> lengthIds) {
+    final FieldType fieldType = new FieldType();
+    fieldType.setId(field.getId());
+    fieldType.setName(field.getName());
+    fieldType.setType(field.getType());
+    fieldType.setAbbrName(field.getAbbrName());
+    fieldType.setBaseCategory(field.getBaseCategory());
+    fieldType.setBaseCategoryAbbrName(field.getBaseCategoryAbbrName());
+    if (field.getUnionDataType() != null) {
+      fieldType.setUnionDataType(UnionDataTypeT.fromValue(field.getUnionDataType().value()));
+    }
+    fieldType.setImplMinLength(field.getImplMinLength());
+    fieldType.setImplMaxLength(field.getImplMaxLength());
+    fieldType.setReplacedByField(field.getReplacedByField());
+    copyPedigree(field, fieldType);
+    if (field.getEnumDatatype() != null) {
+      final Field enumField = fieldsById.get(field.getEnumDatatype());
+      if (enumField != null) {
+        fieldType.setType(enumField.getName() + "CodeSet");
+      }
+    }
+    // Assumes that discriminator for field X follows naming convention XSource
+    final Field discriminator = fieldsByName.get(field.getName() + "Source");
+    if (discriminator != null) {
+      fieldType.setDiscriminatorId(discriminator.getId());
+    }
+    if (!field.getEnum().isEmpty()) {
+      fieldType.setType(field.getName() + "CodeSet");
+    } else if ("data".equals(field.getType()) || "XMLData".equals(field.getType())) {
+      fieldType.setLengthId(lengthIds.get(field.getId()));
+    }
+    if (field.getTextId() != null) {
+      fieldType.setAnnotation(annotation(field.getTextId()));
+    }
+    return fieldType;
+  }
+
+  private GroupType convertGroup(Component component, RepeatingGroup repeatingGroup) {
+    final GroupType group = new GroupType();
+    copyPedigree(repeatingGroup, group);
+    group.setId(component.getId());
+    group.setName(component.getName());
+    group.setCategory(component.getCategory());
+    group.setAbbrName(component.getAbbrName());
+    final FieldRefType numInGroup = new FieldRefType();
+    numInGroup.setId(repeatingGroup.getId());
+    if (repeatingGroup.getTextId() != null) {
+      numInGroup.setAnnotation(annotation(repeatingGroup.getTextId()));
+    }
+    group.setNumInGroup(numInGroup);
+    convertMembers(repeatingGroup.getMessageEntity(), group.getComponentRefOrGroupRefOrFieldRef());
+    if (component.getTextId() != null) {
+      group.setAnnotation(annotation(component.getTextId()));
+    }
+    return group;
+  }
+
+  private void convertMembers(List<JAXBElement<? extends MessageEntityT>> members,
+      List<Object> target) {
+    for (final JAXBElement<? extends MessageEntityT> element : members) {
+      final MessageEntityT member = element.getValue();
+      if (member instanceof FieldRef) {
+        final FieldRef fieldRef = (FieldRef) member;
+        final FieldRefType fieldRefType = new FieldRefType();
+        fieldRefType.setId(fieldRef.getId());
+        copyPedigree(fieldRef, fieldRefType);
+        fieldRefType.setPresence(presence(fieldRef));
+        fieldRefType.setImplMinLength(fieldRef.getImplMinLength());
+        fieldRefType.setImplMaxLength(fieldRef.getImplMaxLength());
+        if (fieldRef.getTextId() != null) {
+          fieldRefType.setAnnotation(annotation(fieldRef.getTextId()));
+        }
+        target.add(fieldRefType);
+      } else if (member instanceof ComponentRef) {
+        final ComponentRef componentRef = (ComponentRef) member;
+        final ComponentRefType refType;
+        if (repeatingComponentIds.contains(componentRef.getId())) {
+          final GroupRefType groupRef = new GroupRefType();
+          if (componentRef.getImplMinOccurs() != null) {
+            groupRef.setImplMinOccurs(BigInteger.valueOf(componentRef.getImplMinOccurs()));
+          }
+          if (componentRef.getImplMaxOccurs() != null) {
+            groupRef.setImplMaxOccurs(componentRef.getImplMaxOccurs().toString());
+          }
+          refType = groupRef;
+        } else {
+          refType = new ComponentRefType();
+        }
+        refType.setId(componentRef.getId());
+        copyPedigree(componentRef, refType);
+        refType.setPresence(presence(componentRef));
+        if (componentRef.getTextId() != null) {
+          refType.setAnnotation(annotation(componentRef.getTextId()));
+        }
+        target.add(refType);
+      } else if (member instanceof RepeatingGroup) {
+        // id of a groupRef is the id of the component that defines the group, not NumInGroup
+        final RepeatingGroup repeatingGroup = (RepeatingGroup) member;
+        final BigInteger groupId = groupIdsByNumInGroup.get(repeatingGroup.getId());
+        if (groupId == null) {
+          // a groupRef requires an id
+          logger.error(
+              "Unified2OrchestraConverter no group defined for NumInGroup; member skipped; ID={}",
+              repeatingGroup.getId());
+          continue;
+        }
+        final GroupRefType groupRef = new GroupRefType();
+        copyPedigree(repeatingGroup, groupRef);
+        groupRef.setId(groupId);
+        if (repeatingGroup.getTextId() != null) {
+          groupRef.setAnnotation(annotation(repeatingGroup.getTextId()));
+        }
+        target.add(groupRef);
+      }
+    }
+  }
+
+  private MessageType convertMessage(Message message) {
+    final MessageType messageType = new MessageType();
+    messageType.setId(message.getId());
+    messageType.setName(message.getName());
+    messageType.setMsgType(message.getMsgType());
+    messageType.setCategory(message.getCategory());
+    messageType.setAbbrName(message.getAbbrName());
+    copyPedigree(message, messageType);
+    final MessageType.Structure structure = new MessageType.Structure();
+    convertMembers(message.getMessageEntity(), structure.getComponentRefOrGroupRefOrFieldRef());
+    messageType.setStructure(structure);
+    if (message.getTextId() != null) {
+      messageType.setAnnotation(annotation(message.getTextId()));
+    }
+    return messageType;
+  }
+
+  private SectionType convertSection(Section section) {
+    final SectionType sectionType = new SectionType();
+    if (section.getId() != null) {
+      sectionType.setName(section.getId().value());
+    }
+    sectionType.setDisplayOrder(section.getDisplayOrder());
+    sectionType.setFIXMLFileName(section.getFIXMLFileName());
+    copyPedigree(section, sectionType);
+    if (section.getTextId() != null) {
+      sectionType.setAnnotation(annotation(section.getTextId()));
+    }
+    return sectionType;
+  }
+
+  /**
+   * Copies the pedigree attributes, such as added and deprecated, that the 2010 and current
+   * schemas have in common. The generated classes of the two schemas share no interface, so there
+   * is a copy for each pair of types that is converted.
+   */
+  private void copyPedigree(Category source, CategoryType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(Component source, ComponentType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(Datatype source,
+      io.fixprotocol._2024.orchestra.repository.Datatype target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(Enum source, CodeType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(Field source, FieldType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(Message source, MessageType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(MessageEntityT source, ComponentRefType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(MessageEntityT source, FieldRefType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(MessageEntityT source, GroupType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private void copyPedigree(Section source, SectionType target) {
+    target.setAdded(source.getAdded());
+    target.setAddedEP(validEP(source.getAddedEP()));
+    target.setChangeType(changeType(source.getChangeType()));
+    target.setDeprecated(source.getDeprecated());
+    target.setDeprecatedEP(source.getDeprecatedEP());
+    target.setIssue(source.getIssue());
+    target.setLastModified(source.getLastModified());
+    target.setReplaced(source.getReplaced());
+    target.setReplacedEP(source.getReplacedEP());
+    target.setUpdated(source.getUpdated());
+    target.setUpdatedEP(source.getUpdatedEP());
+  }
+
+  private Documentation documentation(String purpose, String text) {
+    final Documentation documentation = new Documentation();
+    documentation.setPurpose(purpose);
+    documentation.getContent().add(text);
+    return documentation;
+  }
+
+  private boolean isRepeating(Component component) {
+    return component.getRepeating() != null && component.getRepeating() == 1;
+  }
+
+  private ElementOrRefinementContainer metadata(String copyright) {
+    final ElementOrRefinementContainer metadata = new ElementOrRefinementContainer();
+    final List<JAXBElement<SimpleLiteral>> literals = metadata.getAny();
+    final ObjectFactory objectFactory = new ObjectFactory();
+    literals.add(objectFactory.createTitle(literal("Orchestra")));
+    literals.add(objectFactory.createCreator(literal("Unified2OrchestraConverter")));
+    literals.add(objectFactory.createPublisher(literal("FIX Trading Community")));
+    literals.add(objectFactory
+        .createDate(literal(ZonedDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))));
+    literals.add(objectFactory.createFormat(literal("Orchestra schema")));
+    literals.add(objectFactory.createSource(literal("FIX Unified Repository")));
+    if (copyright != null) {
+      literals.add(objectFactory.createRights(literal(copyright)));
+    }
+    return metadata;
+  }
+
+  private SimpleLiteral literal(String value) {
+    final SimpleLiteral literal = new SimpleLiteral();
+    literal.getContent().add(value);
+    return literal;
+  }
+
+  private PresenceT presence(MessageEntityT member) {
+    return member.getRequired() != null && member.getRequired() == 1 ? PresenceT.REQUIRED : null;
+  }
+
+  private io.fixprotocol._2024.orchestra.repository.ChangeTypeT changeType(
+      io.fixprotocol._2010.orchestra.repository.ChangeTypeT changeType) {
+    return changeType != null
+        ? io.fixprotocol._2024.orchestra.repository.ChangeTypeT.fromValue(changeType.value())
+        : null;
+  }
+
+  /**
+   * An added extension pack of -1 denotes none in the unified repository. As in the
+   * transformation, other extension packs are copied unchanged.
+   */
+  private BigInteger validEP(BigInteger ep) {
+    return ep != null && ep.signum() < 0 ? null : ep;
+  }
+}
@@ -1,13 +1,23 @@
 package io.fixprotocol.orchestra.transformers;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import net.sf.saxon.TransformerFactoryImpl;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamSource;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 public class Unified2OrchestraTransformer {
 
@@ -42,14 +52,11 @@ public class Unified2OrchestraTransformer {
       parentFile.mkdirs();
     }
 
-    final Source xmlSource = new javax.xml.transform.stream.StreamSource(inputXml);
-    final InputStream xsltFile =
-        getClass().getClassLoader().getResourceAsStream("xsl/unified2orchestra.xslt");
-    final Source xsltSource = new javax.xml.transform.stream.StreamSource(xsltFile);
+    final Source xmlSource = newSource(inputXml, phraseVersion(phrasesFile));
     final Result result = new javax.xml.transform.stream.StreamResult(outputXml);
 
-    final TransformerFactory transFact = new TransformerFactoryImpl();
-    final Transformer trans = transFact.newTransformer(xsltSource);
+    final Transformer trans =
+        TemplatesCache.getTemplates("xsl/unified2orchestra.xslt").newTransformer();
     trans.setParameter("phrases-file", phrasesFile.toURI().toASCIIString());
     trans.setParameter("name", name);
     trans.setParameter("new-version", version);
@@ -57,6 +64,49 @@ public class Unified2OrchestraTransformer {
   }
 
 
+  /**
+   * Reads the version of a phrases file, which selects the version of the Unified Repository to
+   * convert
+   *
+   * @return value of the {@code version} attribute of the root element, or {@code null} if not
+   *         present
+   */
+  private static String phraseVersion(File phrasesFile) throws TransformerException {
+    final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    try (InputStream is = new FileInputStream(phrasesFile)) {
+      final XMLStreamReader reader = inputFactory.createXMLStreamReader(is);
+      try {
+        reader.nextTag();
+        return reader.getAttributeValue(null, "version");
+      } finally {
+        reader.close();
+      }
+    } catch (IOException | XMLStreamException e) {
+      throw new TransformerException("Failed to read phrases file " + phrasesFile, e);
+    }
+  }
+
+  /**
+   * Creates a source that retains only the version to convert, so that other versions in the
+   * Unified Repository are not held in memory
+   */
+  private static Source newSource(File inputXml, String version) throws TransformerException {
+    if (version == null) {
+      return new StreamSource(inputXml);
+    }
+    try {
+      final SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+      parserFactory.setNamespaceAware(true);
+      final XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+      return new SAXSource(new FixVersionFilter(reader, version),
+          new InputSource(inputXml.toURI().toASCIIString()));
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new TransformerException(e);
+    }
+  }
+
   private void transform(String[] args) throws TransformerException {
     final File inputXml = new File(args[0]);
     final File phrasesFile = new File(args[1]);
@@ -0,0 +1,42 @@
+package io.fixprotocol.orchestra.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class BatchRepositoryValidatorTest {
+
+  @BeforeAll
+  public static void setupOnce() {
+    new File(("target/test")).mkdirs();
+  }
+
+  @Test
+  public void resolveGlob() throws Exception {
+    final List<Path> paths =
+        BatchRepositoryValidator.resolveInputs(List.of("src/test/resources/repository*.xml"));
+    assertEquals(List.of(Paths.get("src/test/resources/repositorywitherrors.xml")), paths);
+  }
+
+  @Test
+  public void validateBatch() throws Exception {
+    final String eventFile = "target/test/batch.json";
+    final BatchRepositoryValidator validator = BatchRepositoryValidator.builder()
+        .input("src/test/resources/repository*.xml")
+        .input("src/test/resources/repositorywitherrors.xml").eventLog(eventFile).threads(2)
+        .style(RepositoryValidator.FIX_STYLE).build();
+    assertFalse(validator.validate());
+    final String report = Files.readString(Paths.get(eventFile));
+    assertTrue(report.contains(
+        "{\"file\":\"src/test/resources/repositorywitherrors.xml\",\"valid\":false,\"fatalErrors\":0,\"errors\":9,\"warnings\":2,"));
+    assertTrue(report.contains(
+        "\"summary\":{\"files\":1,\"valid\":0,\"invalid\":1,\"fatalErrors\":0,\"errors\":9,\"warnings\":2}"));
+  }
+}
@@ -1,6 +1,15 @@
 package io.fixprotocol.orchestra.repository;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -20,6 +29,55 @@ public class FixRepositoryValidatorTest {
             "src/test/resources/repositorywitherrors.xml"});
   }
 
+  @Test
+  public void testValidateIncremental() throws IOException {
+    final Path inputFile = Paths.get("target/test/incremental.xml");
+    final Path cacheFile = Paths.get("target/test/incremental.cache");
+    Files.copy(Paths.get("src/test/resources/repositorywitherrors.xml"), inputFile,
+        StandardCopyOption.REPLACE_EXISTING);
+    Files.deleteIfExists(cacheFile);
+
+    final int[] expected = validate(inputFile, null);
+    // first run populates the cache, second reports unchanged elements from it
+    assertCounts(expected, validate(inputFile, cacheFile));
+    assertCounts(expected, validate(inputFile, cacheFile));
+
+    // deprecating a field affects the components that use it
+    final String text = new String(Files.readAllBytes(inputFile), StandardCharsets.UTF_8);
+    Files.write(inputFile, text.replace("id=\"54\" name=\"Side\">",
+        "id=\"54\" name=\"Side\" deprecated=\"FIX.5.0\">").getBytes(StandardCharsets.UTF_8));
+    final int[] modified = validate(inputFile, null);
+    assertCounts(modified, validate(inputFile, cacheFile));
+    assertCounts(modified, validate(inputFile, cacheFile));
+
+    // removing a datatype leaves the type of fields undefined, though they do not change
+    final String modifiedText = new String(Files.readAllBytes(inputFile), StandardCharsets.UTF_8);
+    Files.write(inputFile, modifiedText.replace("<fixr:datatype name=\"String\"/>", "")
+        .getBytes(StandardCharsets.UTF_8));
+    final int[] removed = validate(inputFile, null);
+    assertTrue(removed[1] > modified[1]);
+    assertCounts(removed, validate(inputFile, cacheFile));
+  }
+
+  private static void assertCounts(int[] expected, int[] actual) {
+    assertEquals(expected[0], actual[0], "fatal errors");
+    assertEquals(expected[1], actual[1], "errors");
+    assertEquals(expected[2], actual[2], "warnings");
+  }
+
+  private static int[] validate(Path inputFile, Path cacheFile) throws IOException {
+    final BasicRepositoryValidator validator =
+        new FixRepositoryValidator(RepositoryValidator.createLogger(null));
+    if (cacheFile != null) {
+      validator.setCacheFile(cacheFile);
+    }
+    try (InputStream inputStream = Files.newInputStream(inputFile)) {
+      validator.validate(inputStream);
+    }
+    return new int[] {validator.getFatalErrors(), validator.getErrors(),
+        validator.getWarnings()};
+  }
+
   @Disabled
   @Test
   public void testValidate() {
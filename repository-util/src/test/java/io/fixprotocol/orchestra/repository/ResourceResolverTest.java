@@ -0,0 +1,20 @@
+package io.fixprotocol.orchestra.repository;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class ResourceResolverTest {
+
+  @Test
+  public void resolvesBesideRootSchema() throws Exception {
+    // repository2010 on the class path has its own xsd/repositorytypes.xsd
+    try (InputStream in = ResourceResolver.getResourceAsStream("repositorytypes.xsd")) {
+      assertNotNull(in);
+      final String schema = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      assertTrue(schema.contains("targetNamespace=\"http://fixprotocol.io/2024/orchestra/repository\""));
+    }
+  }
+}
@@ -1,21 +1,71 @@
 package io.fixprotocol.orchestra.transformers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import io.fixprotocol._2024.orchestra.repository.CodeSetType;
+import io.fixprotocol._2024.orchestra.repository.ComponentType;
+import io.fixprotocol._2024.orchestra.repository.FieldType;
+import io.fixprotocol._2024.orchestra.repository.GroupType;
+import io.fixprotocol._2024.orchestra.repository.MessageType;
+import io.fixprotocol._2024.orchestra.repository.Repository;
 import io.fixprotocol.orchestra.event.EventListener;
 import io.fixprotocol.orchestra.repository.FixRepositoryValidator;
 import io.fixprotocol.orchestra.repository.RepositoryValidator;
+import io.fixprotocol.orchestra.repository.jaxb.RepositoryJAXBContext;
 import io.fixprotocol.orchestra.transformers.RepositoryCompressor.HasCategory;
 import io.fixprotocol.orchestra.transformers.RepositoryCompressor.HasSection;
 import io.fixprotocol.orchestra.transformers.RepositoryCompressor.NotCategory;
 
 public class RepositoryCompressorTest {
 
+  private static final String SAMPLE_FILE = "src/test/resources/compressor-sample.xml";
+
+  /**
+   * @return ids of the code sets, fields, components, groups and messages of a repository file in
+   *         document order
+   */
+  private static Map<String, List<String>> selectedIds(String file) throws Exception {
+    final Repository repository;
+    try (InputStream is = new FileInputStream(file)) {
+      repository = RepositoryJAXBContext.unmarshal(is);
+    }
+    final Map<String, List<String>> ids = new HashMap<>();
+    ids.put("codeSets", idsOf(repository.getCodeSets() != null ? repository.getCodeSets().getCodeSet()
+        : null, CodeSetType::getId));
+    ids.put("fields", idsOf(repository.getFields() != null ? repository.getFields().getField() : null,
+        FieldType::getId));
+    ids.put("components", idsOf(repository.getComponents() != null
+        ? repository.getComponents().getComponent() : null, ComponentType::getId));
+    ids.put("groups", idsOf(repository.getGroups() != null ? repository.getGroups().getGroup() : null,
+        GroupType::getId));
+    ids.put("messages", idsOf(repository.getMessages() != null
+        ? repository.getMessages().getMessage() : null, MessageType::getId));
+    return ids;
+  }
+
+  private static <T> List<String> idsOf(List<T> elements, Function<T, BigInteger> id) {
+    return elements != null
+        ? elements.stream().map(e -> id.apply(e).toString()).collect(Collectors.toList())
+        : List.of();
+  }
+
   @BeforeAll
   public static void setupOnce() {
     new File(("target/test")).mkdirs();
@@ -98,4 +148,109 @@ public class RepositoryCompressorTest {
     final FixRepositoryValidator validator = new FixRepositoryValidator(eventLogger);
     assertTrue(validator.validate(new FileInputStream(new File(outfile))));
   }
+
+  @Test
+  public void sessionStreaming() throws Exception {
+    final String expectedfile = "target/test/samplesession.xml";
+    final String outfile = "target/test/fixtstream.xml";
+    RepositoryCompressor.builder().inputFile(SAMPLE_FILE).outputFile(expectedfile)
+        .messagePredicate(new HasSection("Session", RepositoryCompressor.isCategoryInSection))
+        .build().compress();
+    // Include every category in the "Session" section without unmarshalling the whole file
+    RepositoryCompressor compressor =
+        RepositoryCompressor.builder().inputFile(SAMPLE_FILE)
+            .outputFile(outfile).streaming(true).messagePredicate(new HasSection("Session", RepositoryCompressor.isCategoryInSection)).build();
+    assertTrue(compressor.compress());
+    final EventListener eventLogger =
+        RepositoryValidator.createLogger(new FileOutputStream("target/test/fixtstream.json"));
+    final FixRepositoryValidator validator = new FixRepositoryValidator(eventLogger);
+    assertTrue(validator.validate(new FileInputStream(new File(outfile))));
+    assertEquals(0, validator.getErrors());
+
+    final Map<String, List<String>> ids = selectedIds(outfile);
+    assertEquals(List.of("1", "3", "2"), ids.get("messages"));
+    assertEquals(List.of("58", "98", "108", "112", "373"), ids.get("fields"));
+    assertEquals(List.of("373"), ids.get("codeSets"));
+    assertEquals(List.of(), ids.get("components"));
+    assertEquals(List.of(), ids.get("groups"));
+    assertEquals(selectedIds(expectedfile), ids);
+  }
+
+  /**
+   * Components that refer to each other are output whole, whichever of them an output reaches
+   * first
+   */
+  @Test
+  public void circularComponents() throws Exception {
+    final String sample = new String(Files.readAllBytes(Paths.get(SAMPLE_FILE)),
+        StandardCharsets.UTF_8);
+    final String cyclic = sample
+        .replace("</fixr:components>",
+            "<fixr:component id=\"1004\" name=\"CycleA\" category=\"Common\">"
+                + "<fixr:componentRef id=\"1005\"/><fixr:fieldRef id=\"11\"/></fixr:component>"
+                + "<fixr:component id=\"1005\" name=\"CycleB\" category=\"Common\">"
+                + "<fixr:fieldRef id=\"448\"/><fixr:componentRef id=\"1004\"/></fixr:component>"
+                + "</fixr:components>")
+        .replace("<fixr:fieldRef id=\"112\"/>",
+            "<fixr:fieldRef id=\"112\"/><fixr:componentRef id=\"1004\"/>")
+        .replace("<fixr:fieldRef id=\"58\"/>\n\t\t\t</fixr:structure>\n\t\t</fixr:message>\n"
+            + "\t\t<fixr:message name=\"NewOrderSingle\"",
+            "<fixr:fieldRef id=\"58\"/><fixr:componentRef id=\"1005\"/>\n\t\t\t</fixr:structure>"
+            + "\n\t\t</fixr:message>\n\t\t<fixr:message name=\"NewOrderSingle\"");
+    final Path infile = Paths.get("target/test/circular.xml");
+    Files.write(infile, cyclic.getBytes(StandardCharsets.UTF_8));
+
+    for (final boolean streaming : new boolean[] {false, true}) {
+      // Session reaches CycleA first, then PreTrade reaches only CycleB
+      final String[] outfiles = {"target/test/circularsession" + streaming + ".xml",
+          "target/test/circularpretrade" + streaming + ".xml"};
+      assertTrue(RepositoryCompressor.builder().inputFile(infile.toString()).streaming(streaming)
+          .output(outfiles[0], new HasSection("Session", RepositoryCompressor.isCategoryInSection))
+          .output(outfiles[1], new HasSection("PreTrade", RepositoryCompressor.isCategoryInSection))
+          .build().compress());
+
+      final Map<String, List<String>> preTradeIds = selectedIds(outfiles[1]);
+      assertEquals(List.of("6"), preTradeIds.get("messages"));
+      assertEquals(List.of("11", "55", "58", "448"), preTradeIds.get("fields"), outfiles[1]);
+      assertEquals(List.of("1003", "1004", "1005"), preTradeIds.get("components"));
+    }
+  }
+
+  @Test
+  public void multipleOutputs() throws Exception {
+    final String[] outfiles = {"target/test/multitrade.xml", "target/test/multisession.xml"};
+    // Extract two sections from one read of the input
+    RepositoryCompressor compressor =
+        RepositoryCompressor.builder().inputFile(SAMPLE_FILE)
+            .output(outfiles[0], new HasSection("Trade", RepositoryCompressor.isCategoryInSection))
+            .output(outfiles[1], new HasSection("Session", RepositoryCompressor.isCategoryInSection))
+            .build();
+    assertTrue(compressor.compress());
+    for (final String outfile : outfiles) {
+      final EventListener eventLogger = RepositoryValidator
+          .createLogger(new FileOutputStream(outfile.replace(".xml", ".json")));
+      final FixRepositoryValidator validator = new FixRepositoryValidator(eventLogger);
+      assertTrue(validator.validate(new FileInputStream(new File(outfile))));
+      assertEquals(0, validator.getErrors());
+    }
+
+    final Map<String, List<String>> tradeIds = selectedIds(outfiles[0]);
+    assertEquals(List.of("14", "56"), tradeIds.get("messages"));
+    assertEquals(List.of("11", "54", "55", "448", "453", "548", "552"), tradeIds.get("fields"));
+    assertEquals(List.of("54"), tradeIds.get("codeSets"));
+    assertEquals(List.of("1003"), tradeIds.get("components"));
+    assertEquals(List.of("1012", "2065"), tradeIds.get("groups"));
+    assertEquals(List.of("1", "3", "2"), selectedIds(outfiles[1]).get("messages"));
+
+    // each output is the same as when it is written by a streaming run of its own
+    final String[] streamedfiles =
+        {"target/test/multitradestream.xml", "target/test/multisessionstream.xml"};
+    assertTrue(RepositoryCompressor.builder().inputFile(SAMPLE_FILE).streaming(true)
+        .output(streamedfiles[0], new HasSection("Trade", RepositoryCompressor.isCategoryInSection))
+        .output(streamedfiles[1], new HasSection("Session", RepositoryCompressor.isCategoryInSection))
+        .build().compress());
+    for (int i = 0; i < outfiles.length; i++) {
+      assertEquals(selectedIds(outfiles[i]), selectedIds(streamedfiles[i]), streamedfiles[i]);
+    }
+  }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.transformers;
+
+import java.io.File;
+
+/**
+ * Compares elapsed time of {@link Unified2OrchestraConverter} to that of
+ * {@link Unified2OrchestraTransformer} once both have compiled or loaded what they share across
+ * conversions
+ *
+ * <p>
+ * Not run as a unit test. Run it from the test class path.
+ * </p>
+ */
+public class Unified2OrchestraBenchmark {
+
+  /**
+   * @param args command line arguments
+   *        <ol>
+   *        <li>Name of Unified Repository file to convert; defaults to the test sample</li>
+   *        <li>Name of Repository phrases file; defaults to the test sample</li>
+   *        <li>Number of timed conversions; defaults to 10</li>
+   *        </ol>
+   * @throws Exception if a conversion fails
+   */
+  public static void main(String[] args) throws Exception {
+    final File inputXml = args.length > 0 ? new File(args[0])
+        : new File(Thread.currentThread().getContextClassLoader()
+            .getResource("FixRepositoryUnifiedSample.xml").toURI());
+    final File phrasesFile = args.length > 1 ? new File(args[1])
+        : new File(inputXml.getParent(), "FIX.5.0SP2_EP247_en_phrases.xml");
+    final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    final File xsltOutput = new File("target/test/OrchestraBenchmarkXslt.xml");
+    final File javaOutput = new File("target/test/OrchestraBenchmarkJava.xml");
+
+    final Unified2OrchestraTransformer transformer = new Unified2OrchestraTransformer();
+    transformer.transform(inputXml, phrasesFile, xsltOutput, "FIX.Latest", "EP247");
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      transformer.transform(inputXml, phrasesFile, xsltOutput, "FIX.Latest", "EP247");
+    }
+    final long xsltNanos = (System.nanoTime() - start) / iterations;
+
+    final Unified2OrchestraConverter converter = new Unified2OrchestraConverter();
+    converter.convert(inputXml, phrasesFile, javaOutput, "FIX.Latest", "EP247");
+    start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      converter.convert(inputXml, phrasesFile, javaOutput, "FIX.Latest", "EP247");
+    }
+    final long javaNanos = (System.nanoTime() - start) / iterations;
+
+    System.out.format("Unified to Orchestra; XSLT %d ms, Java %d ms%n", xsltNanos / 1000000,
+        javaNanos / 1000000);
+  }
+}
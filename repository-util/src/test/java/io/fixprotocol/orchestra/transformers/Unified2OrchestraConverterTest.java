@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.transformers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import io.fixprotocol._2024.orchestra.repository.CodeSetType;
+import io.fixprotocol._2024.orchestra.repository.ComponentRefType;
+import io.fixprotocol._2024.orchestra.repository.Datatype;
+import io.fixprotocol._2024.orchestra.repository.Documentation;
+import io.fixprotocol._2024.orchestra.repository.FieldType;
+import io.fixprotocol._2024.orchestra.repository.GroupRefType;
+import io.fixprotocol._2024.orchestra.repository.GroupType;
+import io.fixprotocol._2024.orchestra.repository.MessageType;
+import io.fixprotocol._2024.orchestra.repository.PresenceT;
+import io.fixprotocol._2024.orchestra.repository.Repository;
+import io.fixprotocol.orchestra.repository.jaxb.RepositoryJAXBContext;
+
+public class Unified2OrchestraConverterTest {
+
+  private static File inputXml;
+  private static File phrasesFile;
+
+  @BeforeAll
+  public static void setupOnce() throws Exception {
+    new File(("target/test")).mkdirs();
+    inputXml = new File(Thread.currentThread().getContextClassLoader()
+        .getResource("FixRepositoryUnifiedSample.xml").toURI());
+    phrasesFile = new File(inputXml.getParent(), "FIX.5.0SP2_EP247_en_phrases.xml");
+  }
+
+  @Test
+  public void convert() throws Exception {
+    final File outputXml = new File("target/test/OrchestraSample.xml");
+    new Unified2OrchestraConverter().convert(inputXml, phrasesFile, outputXml, "FIX.Latest",
+        "EP247");
+
+    final Repository repository;
+    try (InputStream is = new FileInputStream(outputXml)) {
+      repository = RepositoryJAXBContext.unmarshal(is);
+    }
+    assertEquals("FIX.Latest", repository.getName());
+
+    // only the version of the phrases file is converted
+    final List<FieldType> fields = repository.getFields().getField();
+    assertEquals(5, fields.size());
+    assertEquals("ClOrdID", fields.get(0).getName());
+    assertEquals("SideCodeSet", fields.get(1).getType());
+    // as in the transformation, only addedEP -1 is dropped
+    assertNull(fields.get(2).getAddedEP());
+    assertEquals(-1, fields.get(2).getUpdatedEP().intValue());
+
+    final CodeSetType codeSet = repository.getCodeSets().getCodeSet().get(0);
+    assertEquals("SideCodeSet", codeSet.getName());
+    assertEquals(54002, codeSet.getCode().get(1).getId().intValue());
+    final Documentation synopsis =
+        (Documentation) codeSet.getCode().get(1).getAnnotation().getDocumentationOrAppinfo().get(0);
+    assertEquals("SYNOPSIS", synopsis.getPurpose());
+    assertEquals("Sell", synopsis.getContent().get(0));
+
+    // examples of a datatype, but not of its mapping, are documented
+    final List<Datatype> datatypes = repository.getDatatypes().getDatatype();
+    assertEquals(2, datatypes.get(0).getAnnotation().getDocumentationOrAppinfo().size());
+    final Documentation example =
+        (Documentation) datatypes.get(1).getAnnotation().getDocumentationOrAppinfo().get(1);
+    assertEquals("EXAMPLE", example.getPurpose());
+    assertEquals("Example: Y", example.getContent().get(0));
+
+    final GroupType group = repository.getGroups().getGroup().get(0);
+    assertEquals("Parties", group.getName());
+    assertEquals(453, group.getNumInGroup().getId().intValue());
+    assertEquals(1, repository.getComponents().getComponent().size());
+
+    final MessageType message = repository.getMessages().getMessage().get(0);
+    final List<Object> members = message.getStructure().getComponentRefOrGroupRefOrFieldRef();
+    assertEquals(4, members.size());
+    assertTrue(members.get(1) instanceof GroupRefType);
+    assertEquals(ComponentRefType.class, members.get(2).getClass());
+    assertEquals(PresenceT.REQUIRED,
+        ((io.fixprotocol._2024.orchestra.repository.FieldRefType) members.get(0)).getPresence());
+  }
+
+  /**
+   * The converter and the XSLT transformation produce the same elements, attributes and text,
+   * though in a different namespace and order
+   */
+  @Test
+  public void equivalentToTransformer() throws Exception {
+    final File xsltOutput = new File("target/test/OrchestraSampleXslt.xml");
+    final File javaOutput = new File("target/test/OrchestraSampleJava.xml");
+    new Unified2OrchestraTransformer().transform(inputXml, phrasesFile, xsltOutput, "FIX.Latest",
+        "EP247");
+    new Unified2OrchestraConverter().convert(inputXml, phrasesFile, javaOutput, "FIX.Latest",
+        "EP247");
+
+    final List<String> expected = flatten(xsltOutput);
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, flatten(javaOutput));
+  }
+
+  /**
+   * A phrases file first read by the converter can then be read by the transformation
+   */
+  @Test
+  public void converterBeforeTransformer() throws Exception {
+    // a copy that no other test has read, so that the converter builds its index
+    final File phrasesCopy = new File("target/test/ConverterFirst_phrases.xml");
+    Files.copy(phrasesFile.toPath(), phrasesCopy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    final File javaOutput = new File("target/test/ConverterFirstJava.xml");
+    final File xsltOutput = new File("target/test/ConverterFirstXslt.xml");
+    new Unified2OrchestraConverter().convert(inputXml, phrasesCopy, javaOutput, "FIX.Latest",
+        "EP247");
+    new Unified2OrchestraTransformer().transform(inputXml, phrasesCopy, xsltOutput, "FIX.Latest",
+        "EP247");
+
+    assertEquals(flatten(xsltOutput), flatten(javaOutput));
+  }
+
+  /**
+   * Lists the elements of a repository below its root, each as the path of local names and
+   * attributes from the root followed by its trimmed text, in sorted order. Metadata is left out
+   * since it names the tool and time of conversion.
+   */
+  private static List<String> flatten(File file) throws Exception {
+    final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    final Element root = factory.newDocumentBuilder().parse(file).getDocumentElement();
+    final List<String> lines = new ArrayList<>();
+    flatten(root, "", lines);
+    Collections.sort(lines);
+    return lines;
+  }
+
+  private static void flatten(Element parent, String path, List<String> lines) {
+    for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+      if (node.getNodeType() != Node.ELEMENT_NODE || "metadata".equals(node.getLocalName())) {
+        continue;
+      }
+      final Element element = (Element) node;
+      final Map<String, String> attributes = new TreeMap<>();
+      final NamedNodeMap attributeNodes = element.getAttributes();
+      for (int i = 0; i < attributeNodes.getLength(); i++) {
+        final Node attribute = attributeNodes.item(i);
+        String value = attribute.getNodeValue();
+        // xs:boolean is written as 1 by the transformation and as true by JAXB
+        if ("builtin".equals(attribute.getLocalName())) {
+          value = Boolean.toString("1".equals(value) || "true".equals(value));
+        }
+        attributes.put(attribute.getLocalName(), value);
+      }
+      final String elementPath = path + "/" + element.getLocalName() + attributes;
+      final StringBuilder text = new StringBuilder();
+      for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+        if (child.getNodeType() == Node.TEXT_NODE
+            || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+          text.append(child.getNodeValue());
+        }
+      }
+      lines.add(elementPath + " " + text.toString().trim());
+      flatten(element, elementPath, lines);
+    }
+  }
+}
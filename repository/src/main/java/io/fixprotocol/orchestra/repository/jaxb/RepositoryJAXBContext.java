@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 FIX Protocol Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.fixprotocol.orchestra.repository.jaxb;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEventHandler;
+import io.fixprotocol._2024.orchestra.repository.Repository;
+
+/**
+ * Shared JAXB context for Orchestra repositories
+ *
+ * <p>
+ * Creating a {@link JAXBContext} is expensive, so one is created per process on first use and
+ * shared by all tools. A context is thread-safe, but marshallers and unmarshallers are not; they
+ * are pooled instead. Borrow one, use it on a single thread, and return it when done. Settings
+ * changed by a borrower are restored to defaults on return.
+ * </p>
+ */
+public final class RepositoryJAXBContext {
+
+  private static final int MAX_IDLE = 16;
+
+  private static volatile JAXBContext context;
+  private static final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+  private static final AtomicInteger idleMarshallers = new AtomicInteger();
+  private static final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+  private static final AtomicInteger idleUnmarshallers = new AtomicInteger();
+
+  /**
+   * Obtains a marshaller from the pool or creates one
+   *
+   * @return a marshaller with default settings
+   * @throws JAXBException if the context cannot be created
+   */
+  public static Marshaller borrowMarshaller() throws JAXBException {
+    final Marshaller marshaller = marshallers.poll();
+    if (marshaller != null) {
+      idleMarshallers.decrementAndGet();
+      return marshaller;
+    }
+    return getContext().createMarshaller();
+  }
+
+  /**
+   * Obtains an unmarshaller from the pool or creates one
+   *
+   * @return an unmarshaller with default settings
+   * @throws JAXBException if the context cannot be created
+   */
+  public static Unmarshaller borrowUnmarshaller() throws JAXBException {
+    final Unmarshaller unmarshaller = unmarshallers.poll();
+    if (unmarshaller != null) {
+      idleUnmarshallers.decrementAndGet();
+      return unmarshaller;
+    }
+    return getContext().createUnmarshaller();
+  }
+
+  /**
+   * @return the shared context, created on first use
+   * @throws JAXBException if the context cannot be created
+   */
+  public static JAXBContext getContext() throws JAXBException {
+    JAXBContext result = context;
+    if (result == null) {
+      synchronized (RepositoryJAXBContext.class) {
+        result = context;
+        if (result == null) {
+          result = JAXBContext.newInstance(Repository.class);
+          context = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Marshals a repository with a pooled marshaller
+   *
+   * @param repository repository to write
+   * @param outputStream output stream
+   * @param formatted if {@code true}, output is indented
+   * @throws JAXBException if the repository cannot be marshalled
+   */
+  public static void marshal(Repository repository, OutputStream outputStream, boolean formatted)
+      throws JAXBException {
+    final Marshaller marshaller = borrowMarshaller();
+    try {
+      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
+      marshaller.marshal(repository, outputStream);
+    } finally {
+      returnMarshaller(marshaller);
+    }
+  }
+
+  /**
+   * Returns a marshaller to the pool
+   *
+   * @param marshaller a marshaller obtained by {@link #borrowMarshaller()}
+   */
+  public static void returnMarshaller(Marshaller marshaller) {
+    try {
+      marshaller.setEventHandler(null);
+      marshaller.setListener(null);
+      marshaller.setSchema(null);
+      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
+      marshaller.setProperty(Marshaller.JAXB_FRAGMENT, false);
+      marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+    } catch (final JAXBException e) {
+      // not reusable
+      return;
+    }
+    if (idleMarshallers.incrementAndGet() <= MAX_IDLE) {
+      marshallers.offer(marshaller);
+    } else {
+      idleMarshallers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns an unmarshaller to the pool
+   *
+   * @param unmarshaller an unmarshaller obtained by {@link #borrowUnmarshaller()}
+   */
+  public static void returnUnmarshaller(Unmarshaller unmarshaller) {
+    try {
+      unmarshaller.setEventHandler(null);
+      unmarshaller.setListener(null);
+      unmarshaller.setSchema(null);
+    } catch (final JAXBException e) {
+      // not reusable
+      return;
+    }
+    if (idleUnmarshallers.incrementAndGet() <= MAX_IDLE) {
+      unmarshallers.offer(unmarshaller);
+    } else {
+      idleUnmarshallers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Unmarshals a repository with a pooled unmarshaller
+   *
+   * @param inputStream input stream of a repository file
+   * @return a repository
+   * @throws JAXBException if the input cannot be unmarshalled
+   */
+  public static Repository unmarshal(InputStream inputStream) throws JAXBException {
+    return unmarshal(inputStream, null);
+  }
+
+  /**
+   * Unmarshals a repository with a pooled unmarshaller
+   *
+   * @param inputStream input stream of a repository file
+   * @param eventHandler receives errors while unmarshalling, or {@code null} for default handling
+   * @return a repository
+   * @throws JAXBException if the input cannot be unmarshalled
+   */
+  public static Repository unmarshal(InputStream inputStream, ValidationEventHandler eventHandler)
+      throws JAXBException {
+    final Unmarshaller unmarshaller = borrowUnmarshaller();
+    try {
+      if (eventHandler != null) {
+        unmarshaller.setEventHandler(eventHandler);
+      }
+      return (Repository) unmarshaller.unmarshal(inputStream);
+    } finally {
+      returnUnmarshaller(unmarshaller);
+    }
+  }
+
+  private RepositoryJAXBContext() {
+
+  }
+}
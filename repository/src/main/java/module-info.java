@@ -4,6 +4,7 @@ module orchestra.repository {
 
   exports io.fixprotocol._2024.orchestra.repository;
   opens io.fixprotocol._2024.orchestra.repository;
+  exports io.fixprotocol.orchestra.repository.jaxb;
   exports org.purl.dc.elements._1;
   opens org.purl.dc.elements._1;
   exports org.purl.dc.terms;